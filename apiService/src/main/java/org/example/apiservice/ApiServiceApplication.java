@@ -1,13 +1,40 @@
 package org.example.apiservice;
 
+import org.example.apiservice.service.UserTransferRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.event.ApplicationEnvironmentPreparedEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.Map;
 
 @SpringBootApplication
 public class ApiServiceApplication {
 
     public static void main(String[] args) {
-        SpringApplication.run(ApiServiceApplication.class, args);
+        SpringApplication app = new SpringApplication(ApiServiceApplication.class);
+        app.addListeners(withoutWebServerForTransfers());
+        ConfigurableApplicationContext context = app.run(args);
+        if (context.getBeanProvider(UserTransferRunner.class).getIfAvailable() != null) {
+            // the transfer is done; the feed and buffer schedulers would otherwise keep the JVM alive
+            System.exit(SpringApplication.exit(context));
+        }
+    }
+
+    // a run with users.export or users.import only transfers accounts (UserTransferRunner) and exits, so it
+    // starts no web server: it neither binds the service's port nor takes requests meanwhile.
+    // spring.main.* is bound to the SpringApplication after this event, before the context is created
+    static ApplicationListener<ApplicationEnvironmentPreparedEvent> withoutWebServerForTransfers() {
+        return event -> {
+            ConfigurableEnvironment env = event.getEnvironment();
+            if (!env.getProperty("users.export", "").isEmpty() || !env.getProperty("users.import", "").isEmpty()) {
+                env.getPropertySources().addFirst(new MapPropertySource("userTransfer",
+                        Map.of("spring.main.web-application-type", "none")));
+            }
+        };
     }
 
 }
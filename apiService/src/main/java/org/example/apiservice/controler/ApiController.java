@@ -1,74 +1,315 @@
 package org.example.apiservice.controler;
 
-import org.example.apiservice.dto.LeaderboardEntry;
+import org.example.apiservice.dto.BatchScoreResult;
+import org.example.apiservice.dto.LeaderboardDiff;
+import org.example.apiservice.dto.LoginResponse;
 import org.example.apiservice.dto.UserDto;
 import org.example.apiservice.dto.ScoreRequest;
 import org.example.apiservice.model.User;
 import org.example.apiservice.repo.UserRepository;
+import org.example.apiservice.service.LeaderboardCache;
+import org.example.apiservice.service.LeaderboardFeed;
+import org.example.apiservice.service.LeaderboardIndex;
+import org.example.apiservice.service.LeaderboardWindow;
+import org.example.apiservice.service.PasswordHasher;
+import org.example.apiservice.service.RateLimiter;
+import org.example.apiservice.service.ReplayVerifier;
+import org.example.apiservice.service.ScoreBuffer;
+import org.example.apiservice.service.ScoreCoalescer;
+import org.example.apiservice.service.ScoreWriter;
+import org.example.apiservice.service.TokenService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import java.time.Duration;
 import java.time.Instant;
-import java.util.Comparator;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
+import java.util.Optional;
 @RestController
 @RequestMapping("/api")
+@Profile("!reactive")
 public class ApiController {
+    private static final int MAX_LEADERBOARD_LIMIT = 100;
+    private static final int MAX_BATCH_SIZE = 1000;
+    // clients reconnect when a stream ends, which also sheds connections whose peer silently went away
+    private static final long STREAM_TIMEOUT_MILLIS = Duration.ofMinutes(30).toMillis();
+
     private final UserRepository repo;
+    private final LeaderboardIndex leaderboardIndex;
+    private final LeaderboardCache leaderboardCache;
+    private final LeaderboardFeed leaderboardFeed;
+    private final ScoreWriter scoreWriter;
+    private final ScoreCoalescer scoreCoalescer;
+    private final PasswordHasher passwordHasher;
+    private final TokenService tokenService;
+    private final RateLimiter rateLimiter;
+    private final ReplayVerifier replayVerifier;
+    // null unless score.write-behind.enabled
+    private final ScoreBuffer scoreBuffer;
 
-    public ApiController(UserRepository repo) {
+    public ApiController(UserRepository repo, LeaderboardIndex leaderboardIndex, LeaderboardCache leaderboardCache,
+                         LeaderboardFeed leaderboardFeed, ScoreWriter scoreWriter, ScoreCoalescer scoreCoalescer, PasswordHasher passwordHasher,
+                         TokenService tokenService, RateLimiter rateLimiter, ReplayVerifier replayVerifier,
+                         Optional<ScoreBuffer> scoreBuffer) {
         this.repo = repo;
+        this.leaderboardIndex = leaderboardIndex;
+        this.leaderboardCache = leaderboardCache;
+        this.leaderboardFeed = leaderboardFeed;
+        this.scoreWriter = scoreWriter;
+        this.scoreCoalescer = scoreCoalescer;
+        this.passwordHasher = passwordHasher;
+        this.tokenService = tokenService;
+        this.rateLimiter = rateLimiter;
+        this.replayVerifier = replayVerifier;
+        this.scoreBuffer = scoreBuffer.orElse(null);
     }
 
     @PostMapping("/register")
     public ResponseEntity<?> register(@Valid @RequestBody UserDto req) {
-        if (repo.findByUsername(req.username).isPresent()) {
+        if (repo.exists(req.username)) {
+            return ResponseEntity.status(409).body("username already exists");
+        }
+        User u = new User(req.username, passwordHasher.hash(req.password));
+        // SET NX: of two concurrent registrations of one name, only the first gets the account
+        if (!repo.create(u)) {
             return ResponseEntity.status(409).body("username already exists");
         }
-        User u = new User(req.username, req.password);
-        repo.save(u);
-        return ResponseEntity.ok().build();
+        leaderboardIndex.record(u.getUsername(), u.getHighScore());
+        leaderboardCache.onScore(LeaderboardIndex.KEY, u.getUsername(), u.getHighScore());
+        return ResponseEntity.ok(issueToken(u.getUsername()));
     }
 
     @PostMapping("/login")
-    public ResponseEntity<?> login(@Valid @RequestBody UserDto req) {
+    public ResponseEntity<?> login(@Valid @RequestBody UserDto req, HttpServletRequest request) {
+        long retryAfter = rateLimiter.acquire(RateLimiter.Endpoint.LOGIN, req.username, request.getRemoteAddr());
+        if (retryAfter > 0) {
+            return tooManyRequests(retryAfter);
+        }
         return repo.findByUsername(req.username)
                 .map(user -> {
-                    if (user.getPassword().equals(req.password)) {
-                        return ResponseEntity.ok().build();
-                    } else {
+                    if (!passwordHasher.matches(req.password, user.getPassword())) {
                         return ResponseEntity.status(401).body("invalid credentials");
                     }
+                    if (!passwordHasher.isHashed(user.getPassword())) {
+                        repo.updatePassword(user.getUsername(), passwordHasher.hash(req.password));
+                    }
+                    return ResponseEntity.ok(issueToken(user.getUsername()));
                 })
                 .orElse(ResponseEntity.status(404).body("user not found"));
     }
 
     @PostMapping("/score")
-    public ResponseEntity<?> submitScore(@Valid @RequestBody ScoreRequest req) {
-        return repo.findByUsername(req.username)
-                .map(user -> {
-                    if (!user.getPassword().equals(req.password)) {
-                        return ResponseEntity.status(401).body("invalid credentials");
+    public ResponseEntity<?> submitScore(@RequestHeader(value = "Authorization", required = false) String authorization,
+                                         @Valid @RequestBody ScoreRequest req, HttpServletRequest request) {
+        String caller = tokenService.verifyBearer(authorization);
+        if (caller == null) {
+            return ResponseEntity.status(401).body("missing or expired token");
+        }
+        long retryAfter = rateLimiter.acquire(RateLimiter.Endpoint.SCORE, caller, request.getRemoteAddr());
+        if (retryAfter > 0) {
+            return tooManyRequests(retryAfter);
+        }
+        if (!caller.equals(req.username)) {
+            return ResponseEntity.status(403).body("token does not belong to " + req.username);
+        }
+        if (!replayVerifier.accepts(req)) {
+            return ResponseEntity.status(422).body("replay does not reproduce the score");
+        }
+        Instant now = Instant.now();
+        if (scoreBuffer != null) {
+            // journaled locally and written to Redis within the flush interval
+            scoreBuffer.submit(req.username, req.highScore, now);
+            return ResponseEntity.accepted().build();
+        }
+        ScoreCoalescer.Submitted submitted = scoreCoalescer.submit(req.username, req.highScore, now);
+        return switch (submitted.result()) {
+            case UPDATED -> {
+                leaderboardCache.onSubmit(req.username, submitted.score(), submitted.at(), true);
+                yield ResponseEntity.ok().build();
+            }
+            case UNCHANGED -> {
+                leaderboardCache.onSubmit(req.username, submitted.score(), submitted.at(), false);
+                yield ResponseEntity.ok().build();
+            }
+            case UNKNOWN_USER -> ResponseEntity.status(404).body("user not found");
+        };
+    }
+
+    /**
+     * Applies many submissions at once. Items must belong to the token's user, unless the caller is a
+     * trusted relay/importer presenting X-Api-Key. A user's batch costs one rate-limit token per item and
+     * its items are written like /score writes them: through the ScoreBuffer in write-behind mode
+     * (answered 202, items "accepted"), otherwise as one coalesced write of the best item. Trusted
+     * batches span many users and are written in one Redis pipeline instead of the coalescer.
+     */
+    @PostMapping("/scores/batch")
+    public ResponseEntity<?> submitScores(@RequestHeader(value = "Authorization", required = false) String authorization,
+                                          @RequestHeader(value = "X-Api-Key", required = false) String apiKey,
+                                          @RequestBody List<ScoreRequest> reqs, HttpServletRequest request) {
+        boolean trusted = tokenService.isServiceKey(apiKey);
+        String caller = trusted ? null : tokenService.verifyBearer(authorization);
+        if (!trusted && caller == null) {
+            return ResponseEntity.status(401).body("missing or expired token");
+        }
+        int maxSize = trusted ? MAX_BATCH_SIZE : rateLimiter.burst(RateLimiter.Endpoint.SCORE);
+        if (reqs.size() > maxSize) {
+            return ResponseEntity.status(413).body("at most " + maxSize + " scores per batch");
+        }
+        if (!trusted) {
+            long retryAfter = rateLimiter.acquire(RateLimiter.Endpoint.SCORE, caller, request.getRemoteAddr(),
+                    Math.max(1, reqs.size()));
+            if (retryAfter > 0) {
+                return tooManyRequests(retryAfter);
+            }
+        }
+
+        String[] statuses = new String[reqs.size()];
+        List<ScoreRequest> accepted = new ArrayList<>(reqs.size());
+        List<Integer> acceptedIdx = new ArrayList<>(reqs.size());
+        for (int i = 0; i < reqs.size(); i++) {
+            ScoreRequest r = reqs.get(i);
+            if (!ScoreRequest.isWellFormed(r)) {
+                statuses[i] = "invalid";
+            } else if (!trusted && !caller.equals(r.username)) {
+                statuses[i] = "forbidden";
+            } else if (!trusted && !replayVerifier.accepts(r)) {
+                statuses[i] = "rejected";
+            } else {
+                accepted.add(r);
+                acceptedIdx.add(i);
+            }
+        }
+
+        Instant now = Instant.now();
+        if (scoreBuffer != null) {
+            for (int j = 0; j < accepted.size(); j++) {
+                ScoreRequest r = accepted.get(j);
+                scoreBuffer.submit(r.username, r.highScore, now);
+                statuses[acceptedIdx.get(j)] = "accepted";
+            }
+            return ResponseEntity.accepted().body(batchResults(reqs, statuses));
+        }
+        if (!trusted) {
+            if (!accepted.isEmpty()) {
+                // every accepted item is the caller's, and only the best of them can change the leaderboard
+                int best = accepted.stream().mapToInt(r -> r.highScore).max().getAsInt();
+                ScoreCoalescer.Submitted submitted = scoreCoalescer.submit(caller, best, now);
+                String status = switch (submitted.result()) {
+                    case UPDATED -> {
+                        leaderboardCache.onSubmit(caller, submitted.score(), submitted.at(), true);
+                        yield "updated";
                     }
-                    if (req.highScore > user.getHighScore()) {
-                        user.setHighScore(req.highScore);
-                        user.setLastUpdate(Instant.now());
-                        repo.save(user);
+                    case UNCHANGED -> {
+                        leaderboardCache.onSubmit(caller, submitted.score(), submitted.at(), false);
+                        yield "unchanged";
                     }
-                    return ResponseEntity.ok().build();
-                })
-                .orElse(ResponseEntity.status(404).body("user not found"));
+                    case UNKNOWN_USER -> "not_found";
+                };
+                for (int i : acceptedIdx) statuses[i] = status;
+            }
+            return ResponseEntity.ok(batchResults(reqs, statuses));
+        }
+
+        List<ScoreWriter.Result> results = scoreWriter.submitAll(accepted, now);
+        for (int j = 0; j < results.size(); j++) {
+            ScoreRequest r = accepted.get(j);
+            statuses[acceptedIdx.get(j)] = switch (results.get(j)) {
+                case UPDATED -> {
+                    leaderboardCache.onSubmit(r.username, r.highScore, now, true);
+                    yield "updated";
+                }
+                case UNCHANGED -> {
+                    leaderboardCache.onSubmit(r.username, r.highScore, now, false);
+                    yield "unchanged";
+                }
+                case UNKNOWN_USER -> "not_found";
+            };
+        }
+        return ResponseEntity.ok(batchResults(reqs, statuses));
+    }
+
+    private static List<BatchScoreResult> batchResults(List<ScoreRequest> reqs, String[] statuses) {
+        List<BatchScoreResult> body = new ArrayList<>(reqs.size());
+        for (int i = 0; i < reqs.size(); i++) {
+            ScoreRequest r = reqs.get(i);
+            body.add(new BatchScoreResult(r == null ? null : r.username, statuses[i]));
+        }
+        return body;
     }
 
     @GetMapping("/leaderboard")
-    public List<LeaderboardEntry> leaderboard() {
-        return StreamSupport.stream(repo.findAll().spliterator(), false)
-                .sorted(Comparator.comparingInt(org.example.apiservice.model.User::getHighScore).reversed())
-                .limit(3)
-                .map(u -> new LeaderboardEntry(u.getUsername(), u.getHighScore()))
-                .collect(Collectors.toList());
+    public ResponseEntity<?> leaderboard(@RequestParam(defaultValue = "3") int limit,
+                                         @RequestParam(defaultValue = "0") long offset,
+                                         @RequestParam(defaultValue = "all") String window) {
+        if (limit < 1 || limit > MAX_LEADERBOARD_LIMIT || offset < 0) {
+            return ResponseEntity.badRequest().body("limit must be 1-" + MAX_LEADERBOARD_LIMIT + " and offset >= 0");
+        }
+        Optional<LeaderboardWindow> w = LeaderboardWindow.fromParam(window);
+        if (w.isEmpty()) {
+            return ResponseEntity.badRequest().body("window must be day, week or all");
+        }
+        String board = w.get().key(Instant.now());
+        LeaderboardCache.Page page = leaderboardCache.get(board, offset, limit, () -> leaderboardIndex.top(board, offset, limit));
+        // Spring answers 304 with an empty body when the ETag matches If-None-Match
+        return ResponseEntity.ok().eTag(page.etag()).body(page.entries());
+    }
+
+    /**
+     * Server-sent events for the all-time top {@code limit}: a "snapshot" event, then a "diff" event
+     * (LeaderboardDiff) whenever one of those positions changes.
+     */
+    @GetMapping(value = "/leaderboard/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter leaderboardStream(@RequestParam(defaultValue = "3") int limit) {
+        if (limit < 1 || limit > LeaderboardFeed.MAX_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be 1-" + LeaderboardFeed.MAX_LIMIT);
+        }
+        SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT_MILLIS);
+        LeaderboardFeed.Subscription subscription = leaderboardFeed.subscribe(limit, new LeaderboardFeed.Listener() {
+            @Override
+            public void send(String event, LeaderboardDiff diff) throws Exception {
+                emitter.send(SseEmitter.event().name(event).data(diff, MediaType.APPLICATION_JSON));
+            }
+
+            @Override
+            public void heartbeat() throws Exception {
+                emitter.send(SseEmitter.event().comment("ping"));
+            }
+
+            @Override
+            public void close() {
+                emitter.complete();
+            }
+        }).orElseThrow(() -> new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "too many subscribers"));
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(subscription::close);
+        emitter.onError(e -> subscription.close());
+        return emitter;
+    }
+
+    @GetMapping("/users/{username}/rank")
+    public ResponseEntity<?> rank(@PathVariable String username) {
+        return leaderboardIndex.rank(username)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElse(ResponseEntity.status(404).body("user not found"));
+    }
+
+    private static ResponseEntity<?> tooManyRequests(long retryAfterSeconds) {
+        return ResponseEntity.status(429)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body("too many requests, retry in " + retryAfterSeconds + " s");
+    }
+
+    private LoginResponse issueToken(String username) {
+        TokenService.Token token = tokenService.issue(username);
+        return new LoginResponse(token.value(), token.expiresAt().getEpochSecond());
     }
 }
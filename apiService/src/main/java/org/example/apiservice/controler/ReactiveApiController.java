@@ -0,0 +1,333 @@
+package org.example.apiservice.controler;
+
+import org.example.apiservice.dto.BatchScoreResult;
+import org.example.apiservice.dto.LeaderboardDiff;
+import org.example.apiservice.dto.LoginResponse;
+import org.example.apiservice.dto.ScoreRequest;
+import org.example.apiservice.dto.UserDto;
+import org.example.apiservice.service.LeaderboardCache;
+import org.example.apiservice.service.LeaderboardFeed;
+import org.example.apiservice.service.LeaderboardIndex;
+import org.example.apiservice.service.LeaderboardWindow;
+import org.example.apiservice.service.PasswordHasher;
+import org.example.apiservice.service.RateLimiter;
+import org.example.apiservice.service.ReactiveScoreCoalescer;
+import org.example.apiservice.service.ReactiveUserStore;
+import org.example.apiservice.service.ReplayVerifier;
+import org.example.apiservice.service.ScoreBuffer;
+import org.example.apiservice.service.ScoreCoalescer;
+import org.example.apiservice.service.ScoreWriter;
+import org.example.apiservice.service.TokenService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import jakarta.validation.Valid;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+
+/*
+WebFlux version of ApiController, active with the "reactive" profile. Same endpoints and
+responses, but no request ever parks a thread: Redis is reached through ReactiveUserStore and
+the deliberately slow password hashing runs on the bounded elastic scheduler.
+ */
+@RestController
+@RequestMapping("/api")
+@Profile("reactive")
+public class ReactiveApiController {
+    private static final int MAX_LEADERBOARD_LIMIT = 100;
+    private static final int MAX_BATCH_SIZE = 1000;
+    // events a slow stream client may fall behind before it is disconnected (it reconnects to a fresh snapshot)
+    private static final int MAX_PENDING_EVENTS = 256;
+    private static final Duration STREAM_TIMEOUT = Duration.ofMinutes(30);
+
+    private final ReactiveUserStore store;
+    private final ReactiveScoreCoalescer scoreCoalescer;
+    private final LeaderboardCache leaderboardCache;
+    private final LeaderboardFeed leaderboardFeed;
+    private final PasswordHasher passwordHasher;
+    private final TokenService tokenService;
+    private final RateLimiter rateLimiter;
+    private final ReplayVerifier replayVerifier;
+    // null unless score.write-behind.enabled
+    private final ScoreBuffer scoreBuffer;
+
+    public ReactiveApiController(ReactiveUserStore store, ReactiveScoreCoalescer scoreCoalescer, LeaderboardCache leaderboardCache,
+                                 LeaderboardFeed leaderboardFeed, PasswordHasher passwordHasher, TokenService tokenService, RateLimiter rateLimiter,
+                                 ReplayVerifier replayVerifier, Optional<ScoreBuffer> scoreBuffer) {
+        this.store = store;
+        this.scoreCoalescer = scoreCoalescer;
+        this.leaderboardCache = leaderboardCache;
+        this.leaderboardFeed = leaderboardFeed;
+        this.passwordHasher = passwordHasher;
+        this.tokenService = tokenService;
+        this.rateLimiter = rateLimiter;
+        this.replayVerifier = replayVerifier;
+        this.scoreBuffer = scoreBuffer.orElse(null);
+    }
+
+    @PostMapping("/register")
+    public Mono<ResponseEntity<?>> register(@Valid @RequestBody UserDto req) {
+        return offload(() -> passwordHasher.hash(req.password))
+                .flatMap(hash -> store.create(req.username, hash))
+                .map(created -> {
+                    if (!created) {
+                        return ResponseEntity.status(409).body("username already exists");
+                    }
+                    leaderboardCache.onScore(LeaderboardIndex.KEY, req.username, 0);
+                    return ResponseEntity.ok(issueToken(req.username));
+                });
+    }
+
+    @PostMapping("/login")
+    public Mono<ResponseEntity<?>> login(@Valid @RequestBody UserDto req, ServerHttpRequest request) {
+        long retryAfter = rateLimiter.acquire(RateLimiter.Endpoint.LOGIN, req.username, clientIp(request));
+        if (retryAfter > 0) {
+            return Mono.just(tooManyRequests(retryAfter));
+        }
+        return store.password(req.username)
+                .flatMap(stored -> offload(() -> passwordHasher.matches(req.password, stored))
+                        .flatMap(matches -> {
+                            if (!matches) {
+                                return Mono.just(ResponseEntity.status(401).body("invalid credentials"));
+                            }
+                            Mono<?> upgrade = passwordHasher.isHashed(stored) ? Mono.empty()
+                                    : offload(() -> passwordHasher.hash(req.password))
+                                            .flatMap(hash -> store.updatePassword(req.username, hash));
+                            return upgrade.then(Mono.fromSupplier(() -> ResponseEntity.ok(issueToken(req.username))));
+                        }))
+                .defaultIfEmpty(ResponseEntity.status(404).body("user not found"));
+    }
+
+    @PostMapping("/score")
+    public Mono<ResponseEntity<?>> submitScore(@RequestHeader(value = "Authorization", required = false) String authorization,
+                                               @Valid @RequestBody ScoreRequest req, ServerHttpRequest request) {
+        String caller = tokenService.verifyBearer(authorization);
+        if (caller == null) {
+            return Mono.just(ResponseEntity.status(401).body("missing or expired token"));
+        }
+        long retryAfter = rateLimiter.acquire(RateLimiter.Endpoint.SCORE, caller, clientIp(request));
+        if (retryAfter > 0) {
+            return Mono.just(tooManyRequests(retryAfter));
+        }
+        if (!caller.equals(req.username)) {
+            return Mono.just(ResponseEntity.status(403).body("token does not belong to " + req.username));
+        }
+        if (!replayVerifier.accepts(req)) {
+            return Mono.just(ResponseEntity.status(422).body("replay does not reproduce the score"));
+        }
+        Instant now = Instant.now();
+        if (scoreBuffer != null) {
+            // one append to the page cache, short enough for the event loop
+            scoreBuffer.submit(req.username, req.highScore, now);
+            return Mono.just(ResponseEntity.accepted().build());
+        }
+        return scoreCoalescer.submit(req.username, req.highScore, now).map(submitted -> switch (submitted.result()) {
+            case UPDATED -> {
+                leaderboardCache.onSubmit(req.username, submitted.score(), submitted.at(), true);
+                yield ResponseEntity.ok().build();
+            }
+            case UNCHANGED -> {
+                leaderboardCache.onSubmit(req.username, submitted.score(), submitted.at(), false);
+                yield ResponseEntity.ok().build();
+            }
+            case UNKNOWN_USER -> ResponseEntity.status(404).body("user not found");
+        });
+    }
+
+    @PostMapping("/scores/batch")
+    public Mono<ResponseEntity<?>> submitScores(@RequestHeader(value = "Authorization", required = false) String authorization,
+                                                @RequestHeader(value = "X-Api-Key", required = false) String apiKey,
+                                                @RequestBody List<ScoreRequest> reqs, ServerHttpRequest request) {
+        boolean trusted = tokenService.isServiceKey(apiKey);
+        String caller = trusted ? null : tokenService.verifyBearer(authorization);
+        if (!trusted && caller == null) {
+            return Mono.just(ResponseEntity.status(401).body("missing or expired token"));
+        }
+        int maxSize = trusted ? MAX_BATCH_SIZE : rateLimiter.burst(RateLimiter.Endpoint.SCORE);
+        if (reqs.size() > maxSize) {
+            return Mono.just(ResponseEntity.status(413).body("at most " + maxSize + " scores per batch"));
+        }
+        if (!trusted) {
+            long retryAfter = rateLimiter.acquire(RateLimiter.Endpoint.SCORE, caller, clientIp(request),
+                    Math.max(1, reqs.size()));
+            if (retryAfter > 0) {
+                return Mono.just(tooManyRequests(retryAfter));
+            }
+        }
+
+        String[] statuses = new String[reqs.size()];
+        List<ScoreRequest> accepted = new ArrayList<>(reqs.size());
+        List<Integer> acceptedIdx = new ArrayList<>(reqs.size());
+        for (int i = 0; i < reqs.size(); i++) {
+            ScoreRequest r = reqs.get(i);
+            if (!ScoreRequest.isWellFormed(r)) {
+                statuses[i] = "invalid";
+            } else if (!trusted && !caller.equals(r.username)) {
+                statuses[i] = "forbidden";
+            } else if (!trusted && !replayVerifier.accepts(r)) {
+                statuses[i] = "rejected";
+            } else {
+                accepted.add(r);
+                acceptedIdx.add(i);
+            }
+        }
+
+        Instant now = Instant.now();
+        if (scoreBuffer != null) {
+            for (int j = 0; j < accepted.size(); j++) {
+                ScoreRequest r = accepted.get(j);
+                scoreBuffer.submit(r.username, r.highScore, now);
+                statuses[acceptedIdx.get(j)] = "accepted";
+            }
+            return Mono.just(ResponseEntity.accepted().body(batchResults(reqs, statuses)));
+        }
+        if (!trusted) {
+            if (accepted.isEmpty()) {
+                return Mono.just(ResponseEntity.ok(batchResults(reqs, statuses)));
+            }
+            // every accepted item is the caller's, and only the best of them can change the leaderboard
+            int best = accepted.stream().mapToInt(r -> r.highScore).max().getAsInt();
+            return scoreCoalescer.submit(caller, best, now).map(submitted -> {
+                String status = switch (submitted.result()) {
+                    case UPDATED -> {
+                        leaderboardCache.onSubmit(caller, submitted.score(), submitted.at(), true);
+                        yield "updated";
+                    }
+                    case UNCHANGED -> {
+                        leaderboardCache.onSubmit(caller, submitted.score(), submitted.at(), false);
+                        yield "unchanged";
+                    }
+                    case UNKNOWN_USER -> "not_found";
+                };
+                for (int i : acceptedIdx) statuses[i] = status;
+                return ResponseEntity.ok(batchResults(reqs, statuses));
+            });
+        }
+        return store.submitAll(accepted, now).collectList().map(results -> {
+            for (int j = 0; j < results.size(); j++) {
+                ScoreRequest r = accepted.get(j);
+                statuses[acceptedIdx.get(j)] = switch (results.get(j)) {
+                    case UPDATED -> {
+                        leaderboardCache.onSubmit(r.username, r.highScore, now, true);
+                        yield "updated";
+                    }
+                    case UNCHANGED -> {
+                        leaderboardCache.onSubmit(r.username, r.highScore, now, false);
+                        yield "unchanged";
+                    }
+                    case UNKNOWN_USER -> "not_found";
+                };
+            }
+            return ResponseEntity.ok(batchResults(reqs, statuses));
+        });
+    }
+
+    private static List<BatchScoreResult> batchResults(List<ScoreRequest> reqs, String[] statuses) {
+        List<BatchScoreResult> body = new ArrayList<>(reqs.size());
+        for (int i = 0; i < reqs.size(); i++) {
+            ScoreRequest r = reqs.get(i);
+            body.add(new BatchScoreResult(r == null ? null : r.username, statuses[i]));
+        }
+        return body;
+    }
+
+    @GetMapping("/leaderboard")
+    public Mono<ResponseEntity<?>> leaderboard(@RequestParam(defaultValue = "3") int limit,
+                                               @RequestParam(defaultValue = "0") long offset,
+                                               @RequestParam(defaultValue = "all") String window) {
+        if (limit < 1 || limit > MAX_LEADERBOARD_LIMIT || offset < 0) {
+            return Mono.just(ResponseEntity.badRequest().body("limit must be 1-" + MAX_LEADERBOARD_LIMIT + " and offset >= 0"));
+        }
+        Optional<LeaderboardWindow> w = LeaderboardWindow.fromParam(window);
+        if (w.isEmpty()) {
+            return Mono.just(ResponseEntity.badRequest().body("window must be day, week or all"));
+        }
+        String board = w.get().key(Instant.now());
+        LeaderboardCache.Page cached = leaderboardCache.lookup(board, offset, limit);
+        Mono<LeaderboardCache.Page> page = cached != null ? Mono.just(cached) : Mono.defer(() -> {
+            long load = leaderboardCache.beginLoad();
+            return store.top(board, offset, limit).collectList()
+                    .map(entries -> leaderboardCache.completeLoad(load, board, offset, limit, entries))
+                    .doOnError(e -> leaderboardCache.abandonLoad())
+                    .doOnCancel(leaderboardCache::abandonLoad);
+        });
+        // WebFlux answers 304 with an empty body when the ETag matches If-None-Match
+        return page.map(p -> ResponseEntity.ok().eTag(p.etag()).body(p.entries()));
+    }
+
+    @GetMapping(value = "/leaderboard/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<LeaderboardDiff>> leaderboardStream(@RequestParam(defaultValue = "3") int limit) {
+        if (limit < 1 || limit > LeaderboardFeed.MAX_LIMIT) {
+            return Flux.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be 1-" + LeaderboardFeed.MAX_LIMIT));
+        }
+        return Flux.<ServerSentEvent<LeaderboardDiff>>create(sink -> {
+                    Optional<LeaderboardFeed.Subscription> subscription = leaderboardFeed.subscribe(limit, new LeaderboardFeed.Listener() {
+                        @Override
+                        public void send(String event, LeaderboardDiff diff) {
+                            sink.next(ServerSentEvent.builder(diff).event(event).build());
+                        }
+
+                        @Override
+                        public void heartbeat() {
+                            sink.next(ServerSentEvent.<LeaderboardDiff>builder().comment("ping").build());
+                        }
+
+                        @Override
+                        public void close() {
+                            sink.complete();
+                        }
+                    });
+                    if (subscription.isEmpty()) {
+                        sink.error(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "too many subscribers"));
+                        return;
+                    }
+                    sink.onDispose(subscription.get()::close);
+                }, FluxSink.OverflowStrategy.BUFFER)
+                .onBackpressureBuffer(MAX_PENDING_EVENTS, dropped -> { }, BufferOverflowStrategy.ERROR)
+                .take(STREAM_TIMEOUT);
+    }
+
+    @GetMapping("/users/{username}/rank")
+    public Mono<ResponseEntity<?>> rank(@PathVariable String username) {
+        return store.rank(username)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.status(404).body("user not found"));
+    }
+
+    private static ResponseEntity<?> tooManyRequests(long retryAfterSeconds) {
+        return ResponseEntity.status(429)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body("too many requests, retry in " + retryAfterSeconds + " s");
+    }
+
+    private static String clientIp(ServerHttpRequest request) {
+        InetSocketAddress remote = request.getRemoteAddress();
+        return remote == null || remote.getAddress() == null ? "unknown" : remote.getAddress().getHostAddress();
+    }
+
+    private LoginResponse issueToken(String username) {
+        TokenService.Token token = tokenService.issue(username);
+        return new LoginResponse(token.value(), token.expiresAt().getEpochSecond());
+    }
+
+    private static <T> Mono<T> offload(Callable<T> work) {
+        return Mono.fromCallable(work).subscribeOn(Schedulers.boundedElastic());
+    }
+}
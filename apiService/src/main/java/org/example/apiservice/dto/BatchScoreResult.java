@@ -0,0 +1,15 @@
+package org.example.apiservice.dto;
+
+/*
+DTO for the per-item outcome of a batch score submission.
+status is one of: updated, unchanged, accepted (write-behind), not_found, forbidden, invalid, rejected.
+ */
+public class BatchScoreResult {
+    public String username;
+    public String status;
+
+    public BatchScoreResult(String username, String status) {
+        this.username = username;
+        this.status = status;
+    }
+}
@@ -0,0 +1,30 @@
+package org.example.apiservice.dto;
+
+import java.util.List;
+
+/*
+DTO for one event of the leaderboard stream: the top-K positions whose entry changed, plus the new
+length of the list. A client applies it by overwriting those positions and cutting its list to size;
+the first event of a stream is a snapshot of the same shape, listing every position.
+ */
+public class LeaderboardDiff {
+    public List<Change> changes;
+    public int size;
+
+    public LeaderboardDiff(List<Change> changes, int size) {
+        this.changes = changes;
+        this.size = size;
+    }
+
+    public static class Change {
+        public int rank;
+        public String username;
+        public int highScore;
+
+        public Change(int rank, String username, int highScore) {
+            this.rank = rank;
+            this.username = username;
+            this.highScore = highScore;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package org.example.apiservice.dto;
+
+/*
+DTO returned by login/register: a bearer token for /score and its expiry (epoch seconds).
+ */
+public class LoginResponse {
+    public String token;
+    public long expiresAt;
+
+    public LoginResponse(String token, long expiresAt) {
+        this.token = token;
+        this.expiresAt = expiresAt;
+    }
+}
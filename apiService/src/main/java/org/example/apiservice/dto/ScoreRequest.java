@@ -3,7 +3,8 @@ package org.example.apiservice.dto;
 import jakarta.validation.constraints.*;
 
 /*
-DTO for score submission requests.
+DTO for score submission requests. The caller is authenticated by its bearer token, and the score is
+proven by the replay of the game that produced it (see ReplayVerifier).
  */
 public class ScoreRequest {
     @NotBlank
@@ -11,11 +12,21 @@ public class ScoreRequest {
     @Pattern(regexp = "^[A-Za-z0-9]+$")
     public String username;
 
-    @NotBlank
-    @Size(min = 3, max = 50)
-    public String password;
-
     @Min(0)
     @Max(999999)
     public int highScore;
+
+    public Replay replay;
+
+    // the seed the game was started with and the ticks at which the player jumped (FlappyEngine.tick())
+    public static class Replay {
+        public long seed;
+        public int[] jumps;
+    }
+
+    // bean validation does not cascade into the elements of a List body, so batch items are checked with this
+    public static boolean isWellFormed(ScoreRequest r) {
+        return r != null && r.username != null && r.username.matches("^[A-Za-z0-9]{3,20}$")
+                && r.highScore >= 0 && r.highScore <= 999999;
+    }
 }
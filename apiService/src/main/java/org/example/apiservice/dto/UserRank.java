@@ -0,0 +1,18 @@
+package org.example.apiservice.dto;
+
+/*
+DTO for a single player's position on the leaderboard.
+ */
+public class UserRank {
+    public String username;
+    public int highScore;
+    public long rank;
+    public long totalPlayers;
+
+    public UserRank(String username, int highScore, long rank, long totalPlayers) {
+        this.username = username;
+        this.highScore = highScore;
+        this.rank = rank;
+        this.totalPlayers = totalPlayers;
+    }
+}
@@ -1,13 +1,11 @@
 package org.example.apiservice.model;
 
-import org.springframework.data.annotation.Id;
-import org.springframework.data.redis.core.RedisHash;
-
 import java.time.Instant;
 
-@RedisHash("User")
+/*
+A player account; stored by UserRepository in the binary layout of UserCodec.
+ */
 public class User {
-    @Id
     private String username;
     private String password;
     private int highScore;
@@ -0,0 +1,106 @@
+package org.example.apiservice.model;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/*
+Binary layout of a user record, stored as a plain string value under "u:<username>":
+
+  offset 0   version (1)
+  offset 1   highScore, int32 big-endian
+  offset 5   lastUpdate, epoch seconds, uint32 big-endian
+  offset 9   password kind: 0 = UTF-8 text, 1 = PBKDF2 hash
+  offset 10  kind 0: the UTF-8 bytes
+             kind 1: iterations int32, salt length (1 byte), salt, hash
+
+The username is the key, so it is not repeated in the value. highScore and lastUpdate sit at fixed
+offsets, which lets submit_score.lua compare and overwrite them in place with SETRANGE. PBKDF2 hashes
+("pbkdf2_sha256$<iterations>$<salt>$<hash>") are stored as raw bytes instead of Base64 text.
+ */
+public final class UserCodec {
+    public static final String KEY_PREFIX = "u:";
+    public static final int VERSION = 1;
+    /** Offset of highScore and lastUpdate, the only part a score update rewrites. */
+    public static final int SCORE_OFFSET = 1;
+    /** Offset of the password part, the only part a password update rewrites. */
+    public static final int PASSWORD_OFFSET = 9;
+    /** Upper bound on a record read from outside Redis: PBKDF2 records are about 60 bytes, long legacy passwords aside. */
+    public static final int MAX_LENGTH = 4096;
+
+    private static final String PBKDF2_PREFIX = "pbkdf2_sha256$";
+    private static final byte TEXT = 0;
+    private static final byte PBKDF2 = 1;
+
+    private UserCodec() {}
+
+    public static String key(String username) {
+        return KEY_PREFIX + username;
+    }
+
+    public static byte[] encode(User user) {
+        byte[] password = encodePassword(user.getPassword());
+        ByteBuffer buf = ByteBuffer.allocate(PASSWORD_OFFSET + password.length);
+        buf.put((byte) VERSION);
+        buf.putInt(user.getHighScore());
+        Instant lastUpdate = user.getLastUpdate() == null ? Instant.EPOCH : user.getLastUpdate();
+        buf.putInt((int) lastUpdate.getEpochSecond());
+        buf.put(password);
+        return buf.array();
+    }
+
+    public static User decode(String username, byte[] value) {
+        ByteBuffer buf = ByteBuffer.wrap(value);
+        int version = buf.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("unknown user record version " + version + " for " + username);
+        }
+        User user = new User();
+        user.setUsername(username);
+        user.setHighScore(buf.getInt());
+        user.setLastUpdate(Instant.ofEpochSecond(Integer.toUnsignedLong(buf.getInt())));
+        user.setPassword(decodePassword(value, PASSWORD_OFFSET));
+        return user;
+    }
+
+    /** Password part of a record (from PASSWORD_OFFSET on), for rewriting just the password. */
+    public static byte[] encodePassword(String password) {
+        if (password != null && password.startsWith(PBKDF2_PREFIX)) {
+            String[] parts = password.split("\\$");
+            try {
+                Base64.Decoder b64 = Base64.getDecoder();
+                int iterations = Integer.parseInt(parts[1]);
+                byte[] salt = b64.decode(parts[2]);
+                byte[] hash = b64.decode(parts[3]);
+                if (parts.length == 4 && salt.length < 256) {
+                    ByteBuffer buf = ByteBuffer.allocate(1 + 4 + 1 + salt.length + hash.length);
+                    buf.put(PBKDF2).putInt(iterations).put((byte) salt.length).put(salt).put(hash);
+                    return buf.array();
+                }
+            } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+                // not a hash PasswordHasher wrote; keep it as text
+            }
+        }
+        byte[] text = password == null ? new byte[0] : password.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buf = ByteBuffer.allocate(1 + text.length);
+        buf.put(TEXT).put(text);
+        return buf.array();
+    }
+
+    /** Reads the password part starting at {@code offset} back into the form PasswordHasher works with. */
+    public static String decodePassword(byte[] value, int offset) {
+        ByteBuffer buf = ByteBuffer.wrap(value, offset, value.length - offset);
+        byte kind = buf.get();
+        if (kind == PBKDF2) {
+            int iterations = buf.getInt();
+            byte[] salt = new byte[buf.get() & 0xff];
+            buf.get(salt);
+            byte[] hash = new byte[buf.remaining()];
+            buf.get(hash);
+            Base64.Encoder b64 = Base64.getEncoder().withoutPadding();
+            return PBKDF2_PREFIX + iterations + "$" + b64.encodeToString(salt) + "$" + b64.encodeToString(hash);
+        }
+        return new String(value, buf.position(), buf.remaining(), StandardCharsets.UTF_8);
+    }
+}
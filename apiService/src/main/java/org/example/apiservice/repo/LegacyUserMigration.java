@@ -0,0 +1,159 @@
+package org.example.apiservice.repo;
+
+import org.example.apiservice.model.User;
+import org.example.apiservice.model.UserCodec;
+import org.example.apiservice.service.RedisShards;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/*
+Converts accounts from the layout Spring Data's @RedisHash("User") mapping wrote (a "User:<name>" hash with
+_class, username, password, highScore and lastUpdate, plus the "User" id set) to UserCodec records.
+All of them are converted once at startup, before the web server takes requests; accounts an older
+instance still writes meanwhile are converted when UserRepository first misses them. Such a miss only
+looks for a legacy hash while the legacy id set exists, which is checked at most once per
+users.legacy-recheck-interval, so once everything is converted a miss is a single GET again; with
+users.migrate-on-miss=false it never looks.
+Each step is idempotent (SET NX, then DEL and SREM), so instances may migrate concurrently.
+The legacy layout predates sharding: with redis.shards set nothing is converted, and accounts are
+moved onto the shards with export/import instead (see UserTransfer).
+ */
+@Component
+public class LegacyUserMigration implements SmartInitializingSingleton {
+    private static final Logger log = LoggerFactory.getLogger(LegacyUserMigration.class);
+    static final String LEGACY_PREFIX = "User:";
+    static final String LEGACY_IDS = "User";
+    private static final int BATCH_SIZE = 500;
+
+    private final StringRedisTemplate redis;
+    private final boolean enabled;
+    private final boolean onStartup;
+    private final boolean onMiss;
+    private final long recheckNanos;
+    // whether the legacy id set existed at the last check, and when (System.nanoTime()) to check again
+    private volatile boolean legacyRemains;
+    private volatile long recheckAt = System.nanoTime();
+
+    public LegacyUserMigration(StringRedisTemplate redis, RedisShards shards,
+                               @Value("${users.migrate-on-startup:true}") boolean onStartup,
+                               @Value("${users.migrate-on-miss:true}") boolean onMiss,
+                               @Value("${users.legacy-recheck-interval:30s}") Duration recheckInterval) {
+        this.redis = redis;
+        this.enabled = shards.size() == 1;
+        this.onStartup = onStartup;
+        this.onMiss = onMiss;
+        this.recheckNanos = recheckInterval.toNanos();
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!enabled || !onStartup || Boolean.FALSE.equals(redis.hasKey(LEGACY_IDS))) return;
+        long migrated = migrateAll();
+        log.info("converted {} accounts to the compact user layout", migrated);
+    }
+
+    public long migrateAll() {
+        long migrated = 0;
+        List<String> batch = new ArrayList<>(BATCH_SIZE);
+        try (Cursor<String> ids = redis.opsForSet().scan(LEGACY_IDS, ScanOptions.scanOptions().count(BATCH_SIZE).build())) {
+            while (ids.hasNext()) {
+                batch.add(ids.next());
+                if (batch.size() == BATCH_SIZE) {
+                    migrated += migrate(batch);
+                    batch.clear();
+                }
+            }
+        }
+        return migrated + migrate(batch);
+    }
+
+    /**
+     * Converts one account if it only exists in the legacy layout; returns the account as now stored.
+     * Returns empty without asking Redis when no legacy accounts were left at the last check.
+     */
+    public Optional<User> migrate(String username) {
+        if (!enabled || !onMiss || !legacyRemains() || migrate(List.of(username)) == 0) return Optional.empty();
+        byte[] value = redis.execute((RedisCallback<byte[]>) c -> c.stringCommands().get(key(username)));
+        return value == null ? Optional.empty() : Optional.of(UserCodec.decode(username, value));
+    }
+
+    private int migrate(List<String> usernames) {
+        if (usernames.isEmpty()) return 0;
+        List<Object> hashes = redis.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (String username : usernames) {
+                conn.hGetAll(LEGACY_PREFIX + username);
+            }
+            return null;
+        });
+        List<User> users = new ArrayList<>(usernames.size());
+        for (int i = 0; i < usernames.size(); i++) {
+            @SuppressWarnings("unchecked")
+            Map<String, String> hash = (Map<String, String>) hashes.get(i);
+            if (hash != null && !hash.isEmpty()) users.add(fromLegacy(usernames.get(i), hash));
+        }
+        if (users.isEmpty()) return 0;
+        redis.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (User u : users) {
+                // an account that already has a compact record keeps it: that one is newer
+                conn.stringCommands().set(key(u.getUsername()), UserCodec.encode(u),
+                        Expiration.persistent(), RedisStringCommands.SetOption.ifAbsent());
+                conn.del(LEGACY_PREFIX + u.getUsername());
+                conn.sRem(LEGACY_IDS, u.getUsername());
+            }
+            return null;
+        });
+        return users.size();
+    }
+
+    private boolean legacyRemains() {
+        long now = System.nanoTime();
+        if (now - recheckAt >= 0) {
+            legacyRemains = Boolean.TRUE.equals(redis.hasKey(LEGACY_IDS));
+            recheckAt = now + recheckNanos;
+        }
+        return legacyRemains;
+    }
+
+    private static User fromLegacy(String username, Map<String, String> hash) {
+        User u = new User();
+        u.setUsername(username);
+        u.setPassword(hash.get("password"));
+        try {
+            u.setHighScore(Integer.parseInt(hash.getOrDefault("highScore", "0")));
+        } catch (NumberFormatException e) {
+            u.setHighScore(0);
+        }
+        String lastUpdate = hash.get("lastUpdate");
+        try {
+            u.setLastUpdate(lastUpdate == null ? Instant.EPOCH : Instant.parse(lastUpdate));
+        } catch (DateTimeParseException e) {
+            u.setLastUpdate(Instant.EPOCH);
+        }
+        return u;
+    }
+
+    private static byte[] key(String username) {
+        return UserCodec.key(username).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -1,10 +1,104 @@
 package org.example.apiservice.repo;
 
 import org.example.apiservice.model.User;
-import org.springframework.data.repository.CrudRepository;
+import org.example.apiservice.model.UserCodec;
+import org.example.apiservice.service.RedisShards;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
-public interface UserRepository extends CrudRepository<User, String> {
-    Optional<User> findByUsername(String username);
+/*
+Accounts as single binary values (see UserCodec), read and written by direct key lookups:
+one GET per login, no entity mapping, no id set and no derived queries.
+Accounts still in the old Spring Data layout are converted on first access (see LegacyUserMigration).
+Each account is read from and written to its own shard (see RedisShards).
+ */
+@Component
+public class UserRepository {
+    public static final RedisScript<Long> UPDATE_PASSWORD =
+            RedisScript.of(new ClassPathResource("scripts/update_password.lua"), Long.class);
+
+    private final RedisShards shards;
+    private final LegacyUserMigration legacy;
+
+    public UserRepository(RedisShards shards, LegacyUserMigration legacy) {
+        this.shards = shards;
+        this.legacy = legacy;
+    }
+
+    public Optional<User> findByUsername(String username) {
+        byte[] value = shards.forUser(username).execute((RedisCallback<byte[]>) c -> c.stringCommands().get(key(username)));
+        if (value == null) return legacy.migrate(username);
+        return Optional.of(UserCodec.decode(username, value));
+    }
+
+    /**
+     * Looks up many accounts in one pipeline per shard, all shards at once; unknown usernames are skipped.
+     */
+    public List<User> findAllByUsername(List<String> usernames) {
+        List<List<Integer>> groups = shards.group(usernames, username -> username);
+        List<List<User>> found = shards.scatter((shard, redis) -> {
+            List<Integer> mine = groups.get(shard);
+            if (mine.isEmpty()) return List.of();
+            List<Object> values = redis.executePipelined((RedisCallback<Object>) c -> {
+                for (int i : mine) {
+                    c.stringCommands().get(key(usernames.get(i)));
+                }
+                return null;
+            }, RedisSerializer.byteArray());
+            List<User> users = new ArrayList<>(mine.size());
+            for (int j = 0; j < mine.size(); j++) {
+                if (values.get(j) instanceof byte[] value) {
+                    users.add(UserCodec.decode(usernames.get(mine.get(j)), value));
+                }
+            }
+            return users;
+        });
+        List<User> users = new ArrayList<>(usernames.size());
+        found.forEach(users::addAll);
+        return users;
+    }
+
+    public boolean exists(String username) {
+        return findByUsername(username).isPresent();
+    }
+
+    /**
+     * Stores a new account; returns false, leaving the existing one untouched, if the username is taken.
+     */
+    public boolean create(User user) {
+        if (legacy.migrate(user.getUsername()).isPresent()) return false;
+        Boolean created = shards.forUser(user.getUsername()).execute((RedisCallback<Boolean>) c -> c.stringCommands().set(
+                key(user.getUsername()), UserCodec.encode(user), Expiration.persistent(), RedisStringCommands.SetOption.ifAbsent()));
+        return Boolean.TRUE.equals(created);
+    }
+
+    public void save(User user) {
+        shards.forUser(user.getUsername()).execute(
+                (RedisCallback<Boolean>) c -> c.stringCommands().set(key(user.getUsername()), UserCodec.encode(user)));
+    }
+
+    /**
+     * Rewrites only the password, leaving highScore/lastUpdate untouched.
+     */
+    public void updatePassword(String username, String password) {
+        byte[] script = UPDATE_PASSWORD.getScriptAsString().getBytes(StandardCharsets.UTF_8);
+        byte[] offset = String.valueOf(UserCodec.PASSWORD_OFFSET).getBytes(StandardCharsets.UTF_8);
+        shards.forUser(username).execute((RedisCallback<Long>) c -> c.scriptingCommands().eval(
+                script, ReturnType.INTEGER, 1, key(username), UserCodec.encodePassword(password), offset));
+    }
+
+    private static byte[] key(String username) {
+        return UserCodec.key(username).getBytes(StandardCharsets.UTF_8);
+    }
 }
@@ -0,0 +1,64 @@
+package org.example.apiservice.service;
+
+import org.example.apiservice.model.User;
+import org.example.apiservice.model.UserCodec;
+import org.example.apiservice.repo.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+One-shot job that rebuilds the leaderboard index from the existing user records.
+Enable with --leaderboard.backfill=true; records are walked with SCAN, shard by shard, so memory stays bounded by the batch size.
+ */
+@Component
+@ConditionalOnProperty(name = "leaderboard.backfill", havingValue = "true")
+public class LeaderboardBackfill implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(LeaderboardBackfill.class);
+    private static final int BATCH_SIZE = 500;
+
+    private final RedisShards shards;
+    private final UserRepository repo;
+    private final LeaderboardIndex index;
+
+    public LeaderboardBackfill(RedisShards shards, UserRepository repo, LeaderboardIndex index) {
+        this.shards = shards;
+        this.repo = repo;
+        this.index = index;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long indexed = 0;
+        List<String> batch = new ArrayList<>(BATCH_SIZE);
+        ScanOptions records = ScanOptions.scanOptions().match(UserCodec.KEY_PREFIX + "*").count(BATCH_SIZE).build();
+        for (StringRedisTemplate redis : shards.all()) {
+            try (Cursor<String> keys = redis.scan(records)) {
+                while (keys.hasNext()) {
+                    batch.add(keys.next().substring(UserCodec.KEY_PREFIX.length()));
+                    if (batch.size() == BATCH_SIZE) {
+                        indexed += flush(batch);
+                    }
+                }
+            }
+        }
+        indexed += flush(batch);
+        log.info("leaderboard backfill finished, indexed {} users", indexed);
+    }
+
+    private int flush(List<String> batch) {
+        List<User> users = repo.findAllByUsername(batch);
+        index.recordAll(users);
+        batch.clear();
+        return users.size();
+    }
+}
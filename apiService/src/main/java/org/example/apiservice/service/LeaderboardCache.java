@@ -0,0 +1,167 @@
+package org.example.apiservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.apiservice.dto.LeaderboardEntry;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/*
+Bounded in-process cache of leaderboard pages, keyed by board (sorted set key), offset and limit.
+A page is only dropped when a score change can actually move it, so the common
+"score did not reach the top" submission leaves the cache untouched.
+Hits and misses are counted as leaderboard.cache.requests{result=hit|miss}.
+ */
+@Component
+public class LeaderboardCache {
+    private static final int MAX_PAGES = 64;
+    private static final int MAX_TRACKED_WRITES = 256;
+
+    public record Page(String board, long offset, int limit, List<LeaderboardEntry> entries, String etag) {
+
+        boolean affectedBy(String username, int highScore) {
+            if (entries.size() < limit) return true;
+            for (LeaderboardEntry e : entries) {
+                if (e.username.equals(username)) return true;
+            }
+            return highScore >= entries.get(entries.size() - 1).highScore;
+        }
+    }
+
+    private final Map<String, Page> pages = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Page> eldest) {
+            return size() > MAX_PAGES;
+        }
+    };
+
+    // score changes seen while a page was being loaded; a load that raced with an
+    // affecting write is returned to its caller but not cached
+    private record Write(long seq, String board, String username, int highScore) {}
+
+    private final ArrayDeque<Write> writesDuringLoad = new ArrayDeque<>();
+    private long writeSeq;
+    private int loadsInFlight;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public LeaderboardCache(MeterRegistry meters) {
+        hits = meters.counter("leaderboard.cache.requests", "result", "hit");
+        misses = meters.counter("leaderboard.cache.requests", "result", "miss");
+        meters.gauge("leaderboard.cache.pages", this, LeaderboardCache::size);
+    }
+
+    public Page get(String board, long offset, int limit, Supplier<List<LeaderboardEntry>> loader) {
+        Page cached = lookup(board, offset, limit);
+        if (cached != null) return cached;
+        long load = beginLoad();
+        List<LeaderboardEntry> entries;
+        try {
+            entries = loader.get();
+        } catch (RuntimeException e) {
+            abandonLoad();
+            throw e;
+        }
+        return completeLoad(load, board, offset, limit, entries);
+    }
+
+    public synchronized Page lookup(String board, long offset, int limit) {
+        Page page = pages.get(key(board, offset, limit));
+        (page != null ? hits : misses).increment();
+        return page;
+    }
+
+    private synchronized int size() {
+        return pages.size();
+    }
+
+    /**
+     * Starts a load for a missing page; must be followed by completeLoad or abandonLoad.
+     * Split from get() so non-blocking callers can load the page asynchronously.
+     */
+    public synchronized long beginLoad() {
+        loadsInFlight++;
+        return writeSeq;
+    }
+
+    public Page completeLoad(long load, String board, long offset, int limit, List<LeaderboardEntry> loaded) {
+        List<LeaderboardEntry> entries = List.copyOf(loaded);
+        Page page = new Page(board, offset, limit, entries, etag(entries));
+        synchronized (this) {
+            if (!racedWithWrite(page, load)) {
+                pages.put(key(board, offset, limit), page);
+            }
+            endLoad();
+        }
+        return page;
+    }
+
+    public synchronized void abandonLoad() {
+        endLoad();
+    }
+
+    private void endLoad() {
+        if (--loadsInFlight == 0) {
+            writesDuringLoad.clear();
+        }
+    }
+
+    private static String key(String board, long offset, int limit) {
+        return board + "|" + offset + ":" + limit;
+    }
+
+    /**
+     * Invalidation for one accepted submission made at {@code at}: the day and week boards see every score,
+     * the all-time board only a new high score.
+     */
+    public synchronized void onSubmit(String username, int score, Instant at, boolean newHighScore) {
+        onScore(LeaderboardWindow.DAY.key(at), username, score);
+        onScore(LeaderboardWindow.WEEK.key(at), username, score);
+        if (newHighScore) onScore(LeaderboardIndex.KEY, username, score);
+    }
+
+    public synchronized void onScore(String board, String username, int highScore) {
+        writeSeq++;
+        if (loadsInFlight > 0) {
+            if (writesDuringLoad.size() == MAX_TRACKED_WRITES) writesDuringLoad.removeFirst();
+            writesDuringLoad.addLast(new Write(writeSeq, board, username, highScore));
+        }
+        pages.values().removeIf(p -> p.board().equals(board) && p.affectedBy(username, highScore));
+    }
+
+    public synchronized void clear() {
+        pages.clear();
+        writeSeq++;
+        writesDuringLoad.clear();
+    }
+
+    private boolean racedWithWrite(Page page, long startSeq) {
+        if (writeSeq == startSeq) return false;
+        Write oldest = writesDuringLoad.peekFirst();
+        // tracking overflowed (or was cleared): we can no longer prove the page is fresh
+        if (oldest == null || oldest.seq() > startSeq + 1) return true;
+        for (Write w : writesDuringLoad) {
+            if (w.seq() > startSeq && w.board().equals(page.board()) && page.affectedBy(w.username(), w.highScore())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String etag(List<LeaderboardEntry> entries) {
+        StringBuilder sb = new StringBuilder();
+        for (LeaderboardEntry e : entries) {
+            sb.append(e.username).append(':').append(e.highScore).append(';');
+        }
+        return "\"" + DigestUtils.md5DigestAsHex(sb.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+}
@@ -0,0 +1,298 @@
+package org.example.apiservice.service;
+
+import org.example.apiservice.dto.LeaderboardDiff;
+import org.example.apiservice.dto.LeaderboardEntry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*
+Pushes changes of the all-time top 100 to subscribed clients instead of having every client poll /leaderboard.
+submit_score.lua publishes on CHANNEL whenever a board changes, and registration does too (change()), so every
+instance hears about every write and drops its cached pages of the boards named in the message (daily and weekly ones included).
+Changes of the all-time board only mark the feed dirty; at most every REFRESH_MILLIS one ZREVRANGE re-reads the top
+100 and each subscriber gets the positions that changed within its own limit, however many writes happened.
+With several shards it subscribes on each of them, since each publishes the changes of its own users.
+Events are never sent on the refresh thread: each subscriber has a queue of at most MAX_PENDING_EVENTS,
+drained by a virtual thread of its own while there is something in it, so one slow connection only
+delays itself. A subscriber whose queue is full has stopped reading; it is dropped and its connection
+ended, and the client reconnects to a fresh snapshot.
+As a SmartLifecycle in the last phase it stops before the Redis connection factory does.
+ */
+@Component
+public class LeaderboardFeed implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(LeaderboardFeed.class);
+    public static final String CHANNEL = LeaderboardIndex.KEY + ":changes";
+    public static final int MAX_LIMIT = 100;
+    public static final int MAX_SUBSCRIBERS = 10_000;
+    private static final long REFRESH_MILLIS = 200;
+    private static final long HEARTBEAT_SECONDS = 15;
+    // events a subscriber may fall behind before it is dropped
+    static final int MAX_PENDING_EVENTS = 16;
+
+    /**
+     * Transport of one subscriber (an SSE connection). Calls come from one thread at a time, never the
+     * feed's own; throwing from send or heartbeat ends the subscription.
+     */
+    public interface Listener {
+        void send(String event, LeaderboardDiff diff) throws Exception;
+
+        void heartbeat() throws Exception;
+
+        /** The feed dropped this subscriber for falling behind; end the connection so the client reconnects. */
+        default void close() {
+        }
+    }
+
+    // a null diff is a heartbeat
+    private record Event(String name, LeaderboardDiff diff) {}
+
+    public final class Subscription implements AutoCloseable {
+        private final int limit;
+        private final Listener listener;
+        // guarded by itself; draining is true while a sender thread owns the queue
+        private final ArrayDeque<Event> queue = new ArrayDeque<>();
+        private boolean draining;
+
+        private Subscription(int limit, Listener listener) {
+            this.limit = limit;
+            this.listener = listener;
+        }
+
+        private void enqueue(Event event) {
+            boolean full;
+            boolean start = false;
+            synchronized (queue) {
+                full = queue.size() == MAX_PENDING_EVENTS;
+                if (!full) {
+                    queue.add(event);
+                    start = !draining;
+                    draining = true;
+                }
+            }
+            if (full) {
+                log.debug("Dropping a leaderboard subscriber that fell {} events behind", MAX_PENDING_EVENTS);
+                drop();
+            } else if (start) {
+                ExecutorService pool = senders;
+                try {
+                    if (pool == null) throw new RejectedExecutionException("the feed is not running");
+                    pool.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    // the feed is stopped or stopping
+                    drop();
+                }
+            }
+        }
+
+        private void drain() {
+            // interrupted when the feed stops; draining stays set, so nothing is sent any more
+            while (!Thread.currentThread().isInterrupted()) {
+                Event event;
+                synchronized (queue) {
+                    event = queue.poll();
+                    if (event == null) {
+                        draining = false;
+                        return;
+                    }
+                }
+                try {
+                    if (event.diff() == null) {
+                        listener.heartbeat();
+                    } else {
+                        listener.send(event.name(), event.diff());
+                    }
+                } catch (Exception e) {
+                    // the connection is gone; draining stays set, so nothing is sent to it any more
+                    close();
+                    return;
+                }
+            }
+        }
+
+        private void drop() {
+            if (subscribers.remove(this)) {
+                listener.close();
+            }
+        }
+
+        @Override
+        public void close() {
+            subscribers.remove(this);
+        }
+    }
+
+    private final LeaderboardIndex index;
+    private final LeaderboardCache cache;
+    private final RedisShards shards;
+    private final Set<Subscription> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean dirty = new AtomicBoolean(true);
+    // guards snapshot, and orders a new subscriber's snapshot event before any diff sent to it
+    private final Object lock = new Object();
+    private List<LeaderboardEntry> snapshot = List.of();
+    private final List<RedisMessageListenerContainer> containers = new ArrayList<>();
+    // created by start() and shut down by stop(), so nothing is written to a stream once the context closes
+    private volatile ExecutorService senders;
+    private ScheduledExecutorService scheduler;
+
+    public LeaderboardFeed(LeaderboardIndex index, LeaderboardCache cache, RedisShards shards) {
+        this.index = index;
+        this.cache = cache;
+        this.shards = shards;
+    }
+
+    @Override
+    public void start() {
+        senders = Executors.newVirtualThreadPerTaskExecutor();
+        for (RedisConnectionFactory connectionFactory : shards.connectionFactories()) {
+            RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+            container.setConnectionFactory(connectionFactory);
+            container.addMessageListener(this::onMessage, new ChannelTopic(CHANNEL));
+            container.afterPropertiesSet();
+            container.start();
+            containers.add(container);
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "leaderboard-feed");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::refresh, 0, REFRESH_MILLIS, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::heartbeat, HEARTBEAT_SECONDS, HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void stop() {
+        scheduler.shutdownNow();
+        for (RedisMessageListenerContainer container : containers) {
+            try {
+                container.destroy();
+            } catch (Exception e) {
+                log.warn("Could not close the leaderboard change subscription", e);
+            }
+        }
+        containers.clear();
+        scheduler = null;
+        // in-flight sends are interrupted, and open streams end so their clients reconnect elsewhere
+        senders.shutdownNow();
+        for (Subscription s : subscribers) {
+            s.drop();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+
+    /**
+     * Sends the current top {@code limit} as a "snapshot" event, then a "diff" event whenever it changes.
+     * Returns empty when MAX_SUBSCRIBERS are already connected.
+     */
+    public Optional<Subscription> subscribe(int limit, Listener listener) {
+        if (subscribers.size() >= MAX_SUBSCRIBERS) return Optional.empty();
+        Subscription s = new Subscription(limit, listener);
+        synchronized (lock) {
+            subscribers.add(s);
+            List<LeaderboardDiff.Change> all = diff(List.of(), snapshot);
+            deliver(s, "snapshot", all, 0, snapshot.size());
+        }
+        return Optional.of(s);
+    }
+
+    /**
+     * The payload published on CHANNEL when {@code boards} changed for {@code username}; submit_score.lua sends the same.
+     */
+    public static String change(int highScore, String username, String... boards) {
+        return highScore + " " + username + " " + String.join(" ", boards);
+    }
+
+    // payload "<highScore> <username> <board>...", published by submit_score.lua and change()
+    private void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split(" ");
+        if (parts.length < 3) return;
+        int highScore = Integer.parseInt(parts[0]);
+        for (int i = 2; i < parts.length; i++) {
+            // possibly a write on another instance: drop this instance's cached pages as well
+            cache.onScore(parts[i], parts[1], highScore);
+            if (parts[i].equals(LeaderboardIndex.KEY)) dirty.set(true);
+        }
+    }
+
+    void refresh() {
+        if (!dirty.getAndSet(false)) return;
+        List<LeaderboardEntry> top;
+        try {
+            top = index.top(LeaderboardIndex.KEY, 0, MAX_LIMIT);
+        } catch (RuntimeException e) {
+            dirty.set(true);
+            log.warn("Could not refresh the leaderboard feed", e);
+            return;
+        }
+        List<LeaderboardDiff.Change> changes;
+        int oldSize;
+        List<Subscription> targets;
+        synchronized (lock) {
+            changes = diff(snapshot, top);
+            oldSize = snapshot.size();
+            snapshot = top;
+            targets = List.copyOf(subscribers);
+        }
+        if (changes.isEmpty() && oldSize == top.size()) return;
+        for (Subscription s : targets) {
+            deliver(s, "diff", changes, oldSize, top.size());
+        }
+    }
+
+    void heartbeat() {
+        for (Subscription s : subscribers) {
+            s.enqueue(new Event("ping", null));
+        }
+    }
+
+    // sends the part of a top-100 change that falls within the subscriber's limit, if there is any
+    private void deliver(Subscription s, String event, List<LeaderboardDiff.Change> changes, int oldSize, int newSize) {
+        List<LeaderboardDiff.Change> visible = new ArrayList<>();
+        for (LeaderboardDiff.Change c : changes) {
+            if (c.rank <= s.limit) visible.add(c);
+        }
+        int size = Math.min(s.limit, newSize);
+        if (!event.equals("snapshot") && visible.isEmpty() && size == Math.min(s.limit, oldSize)) return;
+        s.enqueue(new Event(event, new LeaderboardDiff(visible, size)));
+    }
+
+    /** Positions (1-based) of {@code after} whose entry differs from {@code before}; removals show in the size. */
+    static List<LeaderboardDiff.Change> diff(List<LeaderboardEntry> before, List<LeaderboardEntry> after) {
+        List<LeaderboardDiff.Change> changes = new ArrayList<>();
+        for (int i = 0; i < after.size(); i++) {
+            LeaderboardEntry a = after.get(i);
+            if (i < before.size()) {
+                LeaderboardEntry b = before.get(i);
+                if (b.highScore == a.highScore && Objects.equals(b.username, a.username)) continue;
+            }
+            changes.add(new LeaderboardDiff.Change(i + 1, a.username, a.highScore));
+        }
+        return changes;
+    }
+}
@@ -0,0 +1,142 @@
+package org.example.apiservice.service;
+
+import org.example.apiservice.dto.LeaderboardEntry;
+import org.example.apiservice.dto.UserRank;
+import org.example.apiservice.model.User;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/*
+Sorted set of every player's high score (member = username, score = highScore).
+Top-K pages are answered with ZREVRANGE in O(log N + K) instead of loading every User hash.
+The daily and weekly boards are sorted sets of the same shape (see LeaderboardWindow).
+
+With several shards (RedisShards) every shard has these sets for its own users. A page is then read from
+all shards in parallel: each returns its best offset + limit entries, and a k-way merge over those sorted
+lists keeps the page. Equal scores are ordered by shard, then as Redis orders them within the shard, and
+rank() counts players ahead in the same order.
+ */
+@Component
+public class LeaderboardIndex {
+    public static final String KEY = "leaderboard";
+
+    private final RedisShards shards;
+
+    public LeaderboardIndex(RedisShards shards) {
+        this.shards = shards;
+    }
+
+    /** Sets the all-time entry and announces it, so every instance drops its cached pages and feeds the change. */
+    public void record(String username, int highScore) {
+        StringRedisTemplate redis = shards.forUser(username);
+        redis.opsForZSet().add(KEY, username, highScore);
+        redis.convertAndSend(LeaderboardFeed.CHANNEL, LeaderboardFeed.change(highScore, username, KEY));
+    }
+
+    public void recordAll(List<User> users) {
+        if (users.isEmpty()) return;
+        List<List<Integer>> groups = shards.group(users, User::getUsername);
+        shards.scatter((shard, redis) -> {
+            List<Integer> mine = groups.get(shard);
+            if (mine.isEmpty()) return null;
+            return redis.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection conn = (StringRedisConnection) connection;
+                for (int i : mine) {
+                    User u = users.get(i);
+                    conn.zAdd(KEY, u.getHighScore(), u.getUsername());
+                }
+                return null;
+            });
+        });
+    }
+
+    /**
+     * One page of a leaderboard sorted set; {@code board} is {@link #KEY} or a {@link LeaderboardWindow} key.
+     */
+    public List<LeaderboardEntry> top(String board, long offset, int limit) {
+        if (shards.size() == 1) {
+            return toEntries(shards.all().get(0).opsForZSet().reverseRangeWithScores(board, offset, offset + limit - 1));
+        }
+        // any shard may hold the whole page, so each one has to return everything down to its last position
+        List<List<LeaderboardEntry>> perShard = shards.scatter((shard, redis) ->
+                toEntries(redis.opsForZSet().reverseRangeWithScores(board, 0, offset + limit - 1)));
+        return merge(perShard, offset, limit);
+    }
+
+    // k-way merge of lists sorted by descending score; the heap holds the head of every list
+    static List<LeaderboardEntry> merge(List<List<LeaderboardEntry>> sorted, long offset, int limit) {
+        PriorityQueue<int[]> heads = new PriorityQueue<>((a, b) -> {
+            int byScore = Integer.compare(sorted.get(b[0]).get(b[1]).highScore, sorted.get(a[0]).get(a[1]).highScore);
+            return byScore != 0 ? byScore : Integer.compare(a[0], b[0]);
+        });
+        for (int s = 0; s < sorted.size(); s++) {
+            if (!sorted.get(s).isEmpty()) heads.add(new int[]{s, 0});
+        }
+        List<LeaderboardEntry> page = new ArrayList<>(limit);
+        for (long position = 0; !heads.isEmpty() && page.size() < limit; position++) {
+            int[] head = heads.poll();
+            List<LeaderboardEntry> list = sorted.get(head[0]);
+            if (position >= offset) page.add(list.get(head[1]));
+            if (++head[1] < list.size()) heads.add(head);
+        }
+        return page;
+    }
+
+    /**
+     * ZSCORE + ZREVRANK + ZCARD in one pipelined round trip; rank is 1-based. With several shards a second,
+     * parallel round trip counts the players ahead on the other shards.
+     */
+    public Optional<UserRank> rank(String username) {
+        int own = shards.indexOf(username);
+        List<Object> res = shards.forUser(username).executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            conn.zScore(KEY, username);
+            conn.zRevRank(KEY, username);
+            conn.zCard(KEY);
+            return null;
+        });
+        if (res.get(0) == null || res.get(1) == null) return Optional.empty();
+        int highScore = ((Double) res.get(0)).intValue();
+        long rank = (Long) res.get(1) + 1;
+        long total = (Long) res.get(2);
+        if (shards.size() > 1) {
+            List<List<Object>> others = shards.scatter((shard, redis) -> {
+                if (shard == own) return List.of(0L, 0L);
+                // ties are ordered by shard, so on earlier shards an equal score is also ahead
+                Range<Double> ahead = Range.rightUnbounded(shard < own
+                        ? Range.Bound.inclusive((double) highScore) : Range.Bound.exclusive((double) highScore));
+                return redis.executePipelined((RedisCallback<Object>) connection -> {
+                    StringRedisConnection conn = (StringRedisConnection) connection;
+                    conn.zSetCommands().zCount(KEY.getBytes(StandardCharsets.UTF_8), ahead);
+                    conn.zCard(KEY);
+                    return null;
+                });
+            });
+            for (List<Object> counts : others) {
+                rank += (Long) counts.get(0);
+                total += (Long) counts.get(1);
+            }
+        }
+        return Optional.of(new UserRank(username, highScore, rank, total));
+    }
+
+    private static List<LeaderboardEntry> toEntries(Set<TypedTuple<String>> tuples) {
+        List<LeaderboardEntry> entries = new ArrayList<>();
+        if (tuples == null) return entries;
+        for (TypedTuple<String> t : tuples) {
+            entries.add(new LeaderboardEntry(t.getValue(), t.getScore() == null ? 0 : t.getScore().intValue()));
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,48 @@
+package org.example.apiservice.service;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.IsoFields;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Optional;
+
+/*
+Time windows of the leaderboard (UTC). Each day and ISO week gets its own sorted set, named after the period
+(leaderboard:day:2026-10-18, leaderboard:week:2026-W42), which expires when the period ends:
+a new period simply starts writing a new key, so nothing ever has to be reset or cleaned up.
+ */
+public enum LeaderboardWindow {
+    DAY, WEEK, ALL;
+
+    public String key(Instant at) {
+        LocalDate date = LocalDate.ofInstant(at, ZoneOffset.UTC);
+        return switch (this) {
+            case DAY -> LeaderboardIndex.KEY + ":day:" + date;
+            case WEEK -> LeaderboardIndex.KEY + ":week:" + date.get(IsoFields.WEEK_BASED_YEAR)
+                    + "-W" + String.format("%02d", date.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+            case ALL -> LeaderboardIndex.KEY;
+        };
+    }
+
+    /**
+     * End of the period containing {@code at}; empty for the all-time board, which never expires.
+     */
+    public Optional<Instant> expiresAt(Instant at) {
+        LocalDate date = LocalDate.ofInstant(at, ZoneOffset.UTC);
+        return switch (this) {
+            case DAY -> Optional.of(date.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant());
+            case WEEK -> Optional.of(date.with(TemporalAdjusters.next(DayOfWeek.MONDAY)).atStartOfDay(ZoneOffset.UTC).toInstant());
+            case ALL -> Optional.empty();
+        };
+    }
+
+    /** "day", "week" or "all". */
+    public static Optional<LeaderboardWindow> fromParam(String param) {
+        for (LeaderboardWindow w : values()) {
+            if (w.name().equalsIgnoreCase(param)) return Optional.of(w);
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,114 @@
+package org.example.apiservice.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/*
+In-process token buckets for /login and /score, one per username and one per client IP.
+Buckets live in lock-striped LRU maps, so concurrent requests for different keys rarely contend
+and memory stays bounded; an evicted bucket comes back full, which only ever errs towards allowing.
+ */
+@Component
+public class RateLimiter {
+    private static final int STRIPES = 64;
+    private static final int BUCKETS_PER_STRIPE = 4096;
+
+    public enum Endpoint { LOGIN, SCORE }
+
+    private record Limit(double burst, double perNano) {}
+
+    private static final class Bucket {
+        double tokens;
+        long updatedNanos;
+    }
+
+    private final Limit[] userLimits = new Limit[Endpoint.values().length];
+    private final Limit[] ipLimits = new Limit[Endpoint.values().length];
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final LongSupplier nanoClock;
+
+    @Autowired
+    public RateLimiter(@Value("${ratelimit.login.burst:5}") double loginBurst,
+                       @Value("${ratelimit.login.per-second:0.2}") double loginPerSecond,
+                       @Value("${ratelimit.score.burst:20}") double scoreBurst,
+                       @Value("${ratelimit.score.per-second:5}") double scorePerSecond,
+                       @Value("${ratelimit.ip-factor:10}") double ipFactor) {
+        this(loginBurst, loginPerSecond, scoreBurst, scorePerSecond, ipFactor, System::nanoTime);
+    }
+
+    RateLimiter(double loginBurst, double loginPerSecond, double scoreBurst, double scorePerSecond,
+                double ipFactor, LongSupplier nanoClock) {
+        setLimits(Endpoint.LOGIN, loginBurst, loginPerSecond, ipFactor);
+        setLimits(Endpoint.SCORE, scoreBurst, scorePerSecond, ipFactor);
+        for (int i = 0; i < STRIPES; i++) stripes[i] = new Stripe();
+        this.nanoClock = nanoClock;
+    }
+
+    private void setLimits(Endpoint endpoint, double burst, double perSecond, double ipFactor) {
+        userLimits[endpoint.ordinal()] = new Limit(burst, perSecond / 1e9);
+        ipLimits[endpoint.ordinal()] = new Limit(burst * ipFactor, perSecond * ipFactor / 1e9);
+    }
+
+    /**
+     * Takes one token from the caller's IP bucket and from the username's bucket.
+     * Returns 0 when the request may proceed, otherwise the seconds until it may be retried.
+     */
+    public long acquire(Endpoint endpoint, String username, String ip) {
+        return acquire(endpoint, username, ip, 1);
+    }
+
+    /**
+     * Like acquire(endpoint, username, ip), but takes {@code permits} tokens from each bucket, e.g. one per
+     * item of a batch. {@code permits} must not exceed burst(endpoint), or the request could never proceed.
+     */
+    public long acquire(Endpoint endpoint, String username, String ip, int permits) {
+        long now = nanoClock.getAsLong();
+        long waitNanos = take(endpoint.name() + "|ip|" + ip, ipLimits[endpoint.ordinal()], permits, now);
+        if (waitNanos == 0 && username != null) {
+            waitNanos = take(endpoint.name() + "|user|" + username, userLimits[endpoint.ordinal()], permits, now);
+        }
+        return waitNanos == 0 ? 0 : Math.max(1, (waitNanos + 999_999_999) / 1_000_000_000);
+    }
+
+    /** The most tokens a single user can spend at once on {@code endpoint}. */
+    public int burst(Endpoint endpoint) {
+        return (int) userLimits[endpoint.ordinal()].burst();
+    }
+
+    private long take(String key, Limit limit, int permits, long now) {
+        Stripe stripe = stripes[Math.floorMod(key.hashCode(), STRIPES)];
+        synchronized (stripe) {
+            Bucket b = stripe.get(key);
+            if (b == null) {
+                b = new Bucket();
+                b.tokens = limit.burst();
+                b.updatedNanos = now;
+                stripe.put(key, b);
+            } else {
+                b.tokens = Math.min(limit.burst(), b.tokens + (now - b.updatedNanos) * limit.perNano());
+                b.updatedNanos = now;
+            }
+            if (b.tokens >= permits) {
+                b.tokens -= permits;
+                return 0;
+            }
+            return (long) Math.ceil((permits - b.tokens) / limit.perNano());
+        }
+    }
+
+    private static final class Stripe extends LinkedHashMap<String, Bucket> {
+        Stripe() {
+            super(16, 0.75f, true);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+            return size() > BUCKETS_PER_STRIPE;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package org.example.apiservice.service;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ScoreCoalescer for the reactive profile. Same bookkeeping, but nobody blocks: the submission that finds
+no write in flight starts one, and when a write returns, its callback starts the next one with the
+maximum of what queued up meanwhile. Each caller's Mono completes with the write that covered it.
+Writes are subscribed here, not by the caller, so a cancelled request does not strand the ones queued behind it.
+ */
+@Component
+@Profile("reactive")
+public class ReactiveScoreCoalescer {
+
+    private static final class Queued {
+        int maxScore = Integer.MIN_VALUE;
+        // the latest submission time, so a batch that crosses midnight lands on the new day's board
+        Instant at = Instant.MIN;
+        final CompletableFuture<ScoreCoalescer.Submitted> done = new CompletableFuture<>();
+    }
+
+    private final ReactiveUserStore store;
+
+    // username -> submissions waiting for the in-flight write (an empty Queued = in flight, nobody waiting);
+    // all changes go through compute(), which is atomic per key
+    private final ConcurrentHashMap<String, Queued> inFlight = new ConcurrentHashMap<>();
+
+    public ReactiveScoreCoalescer(ReactiveUserStore store) {
+        this.store = store;
+    }
+
+    public Mono<ScoreCoalescer.Submitted> submit(String username, int score, Instant at) {
+        return Mono.defer(() -> {
+            boolean[] writing = new boolean[1];
+            Queued queued = inFlight.compute(username, (k, current) -> {
+                if (current == null) {
+                    writing[0] = true;
+                    return new Queued();
+                }
+                current.maxScore = Math.max(current.maxScore, score);
+            if (at.isAfter(current.at)) current.at = at;
+                return current;
+            });
+            if (!writing[0]) {
+                return Mono.fromFuture(queued.done, true);
+            }
+            CompletableFuture<ScoreCoalescer.Submitted> mine = new CompletableFuture<>();
+            write(username, score, at, mine);
+            return Mono.fromFuture(mine, true);
+        });
+    }
+
+    private void write(String username, int score, Instant at, CompletableFuture<ScoreCoalescer.Submitted> done) {
+        store.submit(username, score, at).subscribe(
+                result -> {
+                    done.complete(new ScoreCoalescer.Submitted(result, score, at));
+                    next(username);
+                },
+                e -> {
+                    done.completeExceptionally(e);
+                    Queued batch = inFlight.remove(username);
+                    if (batch != null) batch.done.completeExceptionally(e);
+                });
+    }
+
+    // writes what queued up behind the write that just returned, or ends the run if nobody is waiting
+    private void next(String username) {
+        Queued[] taken = new Queued[1];
+        inFlight.compute(username, (k, current) -> {
+            if (current.maxScore == Integer.MIN_VALUE) return null;
+            taken[0] = current;
+            return new Queued();
+        });
+        Queued batch = taken[0];
+        if (batch != null) write(username, batch.maxScore, batch.at, batch.done);
+    }
+}
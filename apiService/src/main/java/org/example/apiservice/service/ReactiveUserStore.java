@@ -0,0 +1,119 @@
+package org.example.apiservice.service;
+
+import org.example.apiservice.dto.LeaderboardEntry;
+import org.example.apiservice.dto.ScoreRequest;
+import org.example.apiservice.dto.UserRank;
+import org.example.apiservice.model.User;
+import org.example.apiservice.model.UserCodec;
+import org.example.apiservice.repo.LegacyUserMigration;
+import org.example.apiservice.repo.UserRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+
+/*
+Non-blocking counterpart of UserRepository/ScoreWriter/LeaderboardIndex for the "reactive" profile.
+Works on the same keys and user records, so both stacks can serve the same Redis.
+ */
+@Component
+@Profile("reactive")
+public class ReactiveUserStore {
+    // concurrent EVALSHAs on the shared connection; Lettuce pipelines them on the wire
+    private static final int BATCH_CONCURRENCY = 64;
+
+    private final ReactiveStringRedisTemplate redis;
+    private final LegacyUserMigration legacyMigration;
+
+    public ReactiveUserStore(ReactiveStringRedisTemplate redis, LegacyUserMigration legacyMigration) {
+        this.redis = redis;
+        this.legacyMigration = legacyMigration;
+    }
+
+    /**
+     * Creates the user unless it already exists; emits false when the username is taken.
+     */
+    public Mono<Boolean> create(String username, String passwordHash) {
+        ByteBuffer value = ByteBuffer.wrap(UserCodec.encode(new User(username, passwordHash)));
+        return legacy(username)
+                .map(legacyUser -> false)
+                .switchIfEmpty(Mono.defer(() -> redis.execute(c -> c.stringCommands().set(key(username), value,
+                                Expiration.persistent(), RedisStringCommands.SetOption.ifAbsent()))
+                        .next()
+                        .flatMap(created -> !created ? Mono.just(false)
+                                : redis.opsForZSet().add(LeaderboardIndex.KEY, username, 0)
+                                        // announced like a score, so every instance sees the new player
+                                        .then(redis.convertAndSend(LeaderboardFeed.CHANNEL,
+                                                LeaderboardFeed.change(0, username, LeaderboardIndex.KEY)))
+                                        .thenReturn(true))));
+    }
+
+    public Mono<String> password(String username) {
+        return redis.execute(c -> c.stringCommands().get(key(username)))
+                .next()
+                .map(value -> UserCodec.decodePassword(bytes(value), UserCodec.PASSWORD_OFFSET))
+                .switchIfEmpty(legacy(username).map(User::getPassword));
+    }
+
+    public Mono<Boolean> updatePassword(String username, String passwordHash) {
+        ByteBuffer script = ByteBuffer.wrap(UserRepository.UPDATE_PASSWORD.getScriptAsString().getBytes(StandardCharsets.UTF_8));
+        ByteBuffer offset = ByteBuffer.wrap(String.valueOf(UserCodec.PASSWORD_OFFSET).getBytes(StandardCharsets.UTF_8));
+        return redis.execute(c -> c.scriptingCommands().<Long>eval(script, ReturnType.INTEGER, 1,
+                        key(username), ByteBuffer.wrap(UserCodec.encodePassword(passwordHash)), offset))
+                .next()
+                .map(updated -> updated == 1);
+    }
+
+    public Mono<ScoreWriter.Result> submit(String username, int highScore, Instant at) {
+        return redis.execute(ScoreWriter.SUBMIT_SCORE,
+                        ScoreWriter.scriptKeys(username, at), ScoreWriter.scriptArgs(username, highScore, at))
+                .next()
+                .map(ScoreWriter::toResult);
+    }
+
+    public Flux<ScoreWriter.Result> submitAll(List<ScoreRequest> requests, Instant at) {
+        return Flux.fromIterable(requests)
+                .flatMapSequential(r -> submit(r.username, r.highScore, at), BATCH_CONCURRENCY);
+    }
+
+    public Flux<LeaderboardEntry> top(String board, long offset, int limit) {
+        return redis.opsForZSet().reverseRangeWithScores(board,
+                        Range.closed(offset, offset + limit - 1))
+                .map(t -> new LeaderboardEntry(t.getValue(), t.getScore() == null ? 0 : t.getScore().intValue()));
+    }
+
+    public Mono<UserRank> rank(String username) {
+        return Mono.zip(
+                redis.opsForZSet().score(LeaderboardIndex.KEY, username),
+                redis.opsForZSet().reverseRank(LeaderboardIndex.KEY, username),
+                redis.opsForZSet().size(LeaderboardIndex.KEY))
+                .map(t -> new UserRank(username, t.getT1().intValue(), t.getT2() + 1, t.getT3()));
+    }
+
+    // accounts in the old layout are converted at startup; this catches ones an older instance wrote since
+    private Mono<User> legacy(String username) {
+        return Mono.fromCallable(() -> legacyMigration.migrate(username).orElse(null))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private static ByteBuffer key(String username) {
+        return ByteBuffer.wrap(UserCodec.key(username).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static byte[] bytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
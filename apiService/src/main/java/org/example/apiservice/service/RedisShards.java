@@ -0,0 +1,214 @@
+package org.example.apiservice.service;
+
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.api.StatefulConnection;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisPassword;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettucePoolingClientConfiguration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/*
+The Redis instances accounts and leaderboards are spread over (redis.shards, a comma-separated list of
+redis:// URIs). Each account lives on one shard, chosen by consistent hashing of the username, together
+with that user's entries in the leaderboards. Every shard therefore holds a leaderboard of its own users,
+and the leaderboard reads query all shards in parallel and merge the results (see LeaderboardIndex).
+Every shard has VIRTUAL_NODES points on a hash ring, and a username belongs to the first point after
+its hash. A shard is placed by its host, port and database, not by its position in the list. Adding a fifth shard to four
+moves about a fifth of the accounts, which must be moved with export/import (see UserTransfer).
+Without redis.shards, the one instance configured by spring.data.redis is the only shard, and nothing
+runs on another thread. The reactive profile does not support sharding.
+ */
+@Component
+public class RedisShards implements DisposableBean {
+    private static final int VIRTUAL_NODES = 128;
+
+    private final List<StringRedisTemplate> templates;
+    private final List<RedisConnectionFactory> connectionFactories;
+    // factories created here (not by Spring Boot), closed on shutdown
+    private final List<LettuceConnectionFactory> owned;
+    // the ring: sorted point hashes and the shard each point belongs to
+    private final long[] points;
+    private final int[] pointShards;
+    private final ExecutorService scatter;
+
+    @Autowired
+    public RedisShards(StringRedisTemplate redis, Environment environment,
+                       @Value("${redis.shards:}") List<String> endpoints,
+                       @Value("${spring.data.redis.lettuce.pool.max-active:64}") int poolSize) {
+        this(open(redis, environment, endpoints, poolSize));
+    }
+
+    /**
+     * Shards over templates the caller opened and closes, e.g. in benchmarks; {@code names} place them on the ring.
+     */
+    public RedisShards(List<String> names, List<StringRedisTemplate> templates) {
+        this(new Setup(names, templates, List.of()));
+    }
+
+    private record Setup(List<String> names, List<StringRedisTemplate> templates, List<LettuceConnectionFactory> owned) {}
+
+    private RedisShards(Setup setup) {
+        if (setup.names().size() != setup.templates().size() || setup.templates().isEmpty()) {
+            throw new IllegalArgumentException("need one name per shard and at least one shard");
+        }
+        templates = List.copyOf(setup.templates());
+        connectionFactories = templates.stream().map(StringRedisTemplate::getRequiredConnectionFactory).toList();
+        owned = setup.owned();
+        points = new long[templates.size() * VIRTUAL_NODES];
+        pointShards = new int[points.length];
+        buildRing(setup.names());
+        scatter = templates.size() == 1 ? null : Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    private static Setup open(StringRedisTemplate redis, Environment environment, List<String> endpoints, int poolSize) {
+        List<String> uris = endpoints.stream().map(String::trim).filter(s -> !s.isEmpty()).toList();
+        if (uris.isEmpty()) {
+            return new Setup(List.of("default"), List.of(redis), List.of());
+        }
+        if (environment.acceptsProfiles(Profiles.of("reactive"))) {
+            throw new IllegalStateException("redis.shards is not supported with the reactive profile");
+        }
+        List<String> names = new ArrayList<>(uris.size());
+        List<StringRedisTemplate> templates = new ArrayList<>(uris.size());
+        List<LettuceConnectionFactory> owned = new ArrayList<>(uris.size());
+        for (String uri : uris) {
+            RedisURI parsed = RedisURI.create(uri);
+            names.add(parsed.getHost() + ":" + parsed.getPort() + "/" + parsed.getDatabase());
+            LettuceConnectionFactory factory = connect(parsed, poolSize);
+            owned.add(factory);
+            templates.add(new StringRedisTemplate(factory));
+        }
+        return new Setup(names, templates, owned);
+    }
+
+    public int size() {
+        return templates.size();
+    }
+
+    public List<StringRedisTemplate> all() {
+        return templates;
+    }
+
+    public List<RedisConnectionFactory> connectionFactories() {
+        return connectionFactories;
+    }
+
+    public int indexOf(String username) {
+        if (templates.size() == 1) return 0;
+        long h = hash(username);
+        int i = Arrays.binarySearch(points, h);
+        if (i < 0) i = -i - 1;
+        return pointShards[i == points.length ? 0 : i];
+    }
+
+    public StringRedisTemplate forUser(String username) {
+        return templates.get(indexOf(username));
+    }
+
+    /** Positions of {@code items} per shard, in shard order; each list keeps the items' order. */
+    public <T> List<List<Integer>> group(List<T> items, Function<T, String> username) {
+        List<List<Integer>> groups = new ArrayList<>(templates.size());
+        for (int s = 0; s < templates.size(); s++) {
+            groups.add(new ArrayList<>());
+        }
+        for (int i = 0; i < items.size(); i++) {
+            groups.get(indexOf(username.apply(items.get(i)))).add(i);
+        }
+        return groups;
+    }
+
+    /** Runs {@code query} against every shard at once and returns the results in shard order. */
+    public <T> List<T> scatter(ShardQuery<T> query) {
+        if (templates.size() == 1) return Collections.singletonList(query.run(0, templates.get(0)));
+        List<CompletableFuture<T>> futures = new ArrayList<>(templates.size());
+        for (int s = 0; s < templates.size(); s++) {
+            int shard = s;
+            futures.add(CompletableFuture.supplyAsync(() -> query.run(shard, templates.get(shard)), scatter));
+        }
+        List<T> results = new ArrayList<>(futures.size());
+        try {
+            for (CompletableFuture<T> f : futures) {
+                results.add(f.join());
+            }
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException re ? re : e;
+        }
+        return results;
+    }
+
+    public interface ShardQuery<T> {
+        T run(int shard, StringRedisTemplate redis);
+    }
+
+    @Override
+    public void destroy() {
+        if (scatter != null) scatter.shutdownNow();
+        for (LettuceConnectionFactory factory : owned) {
+            factory.destroy();
+        }
+    }
+
+    private void buildRing(List<String> names) {
+        long[][] byHash = new long[points.length][];
+        for (int s = 0; s < names.size(); s++) {
+            for (int v = 0; v < VIRTUAL_NODES; v++) {
+                byHash[s * VIRTUAL_NODES + v] = new long[]{hash(names.get(s) + "#" + v), s};
+            }
+        }
+        Arrays.sort(byHash, (a, b) -> Long.compare(a[0], b[0]));
+        for (int i = 0; i < byHash.length; i++) {
+            points[i] = byHash[i][0];
+            pointShards[i] = (int) byHash[i][1];
+        }
+    }
+
+    private static LettuceConnectionFactory connect(RedisURI parsed, int poolSize) {
+        RedisStandaloneConfiguration config = new RedisStandaloneConfiguration(parsed.getHost(), parsed.getPort());
+        config.setDatabase(parsed.getDatabase());
+        if (parsed.getPassword() != null) config.setPassword(RedisPassword.of(parsed.getPassword()));
+        if (parsed.getUsername() != null) config.setUsername(parsed.getUsername());
+        // pipelines take a dedicated connection, as with the default instance (spring.data.redis.lettuce.pool)
+        GenericObjectPoolConfig<StatefulConnection<?, ?>> pool = new GenericObjectPoolConfig<>();
+        pool.setMaxTotal(poolSize);
+        pool.setMaxIdle(poolSize);
+        LettucePoolingClientConfiguration.LettucePoolingClientConfigurationBuilder client =
+                LettucePoolingClientConfiguration.builder().poolConfig(pool);
+        if (parsed.isSsl()) client.useSsl();
+        LettuceConnectionFactory factory = new LettuceConnectionFactory(config, client.build());
+        factory.afterPropertiesSet();
+        factory.start();
+        return factory;
+    }
+
+    // 64-bit FNV-1a, then the SplitMix64 finalizer so that similar names land far apart on the ring
+    static long hash(String s) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : s.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        return h ^ (h >>> 31);
+    }
+}
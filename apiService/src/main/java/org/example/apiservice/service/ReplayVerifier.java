@@ -0,0 +1,45 @@
+package org.example.apiservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.apiservice.dto.ScoreRequest;
+import org.example.gameengine.FlappyEngine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/*
+Accepts a submitted score only if replaying the game from its seed and jump ticks on the same engine the
+client runs (FlappyEngine) ends with exactly that score. A one-minute game replays in about 0.1 ms,
+so this runs inline on the request thread.
+Submissions without a replay are refused while score.replay.required is set (the default); trusted
+relays presenting the service key are not checked.
+ */
+@Component
+public class ReplayVerifier {
+    private final boolean required;
+    private final Counter accepted;
+    private final Counter rejected;
+    private final Counter missing;
+
+    public ReplayVerifier(@Value("${score.replay.required:true}") boolean required, MeterRegistry meters) {
+        this.required = required;
+        accepted = meters.counter("score.replays", "result", "accepted");
+        rejected = meters.counter("score.replays", "result", "rejected");
+        missing = meters.counter("score.replays", "result", "missing");
+    }
+
+    public boolean accepts(ScoreRequest req) {
+        ScoreRequest.Replay replay = req.replay;
+        if (replay == null || replay.jumps == null) {
+            missing.increment();
+            return !required;
+        }
+        int score = new FlappyEngine().replay(replay.seed, replay.jumps, replay.jumps.length);
+        if (score != FlappyEngine.INVALID && score == req.highScore) {
+            accepted.increment();
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+}
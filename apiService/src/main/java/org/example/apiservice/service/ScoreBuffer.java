@@ -0,0 +1,217 @@
+package org.example.apiservice.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.apiservice.dto.ScoreRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/*
+Write-behind mode for /score (score.write-behind.enabled). A submission is appended to a local ScoreJournal
+and merged into an in-memory map that keeps each user's best score per UTC day. Then it is acknowledged
+without waiting for Redis. Every flush interval a background thread moves the map to Redis in pipelined
+batches of BATCH_SIZE, so a user who submits many times between flushes costs one script call.
+Each flush first rotates the journal. The sealed segments are deleted once the batch is in Redis. If the
+flush fails, its scores go back into the map and the segments stay on disk. On startup every segment
+left behind is replayed into the map, so a crash loses nothing that was acknowledged.
+The journal is opened and replayed in the constructor, before the web server takes requests. As a
+SmartLifecycle in the last phase, the flusher stops (after one last flush) before the Redis connection factory.
+ */
+@Component
+@ConditionalOnProperty(name = "score.write-behind.enabled", havingValue = "true")
+public class ScoreBuffer implements SmartLifecycle, DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(ScoreBuffer.class);
+    public static final int BATCH_SIZE = 1000;
+    private static final long SECONDS_PER_DAY = 86_400;
+    // while Redis is unreachable, flushes are retried at a growing interval up to this
+    private static final long MAX_RETRY_MILLIS = 5_000;
+
+    // scores of different days are kept apart so each reaches its own daily (and weekly) leaderboard
+    private record Key(String username, long day) {}
+
+    private record Best(int score, long epochSecond) {}
+
+    private final ScoreWriter writer;
+    private final LeaderboardCache cache;
+    private final long flushMillis;
+    // guards journal and pending; a submission is in both or in neither
+    private final Object lock = new Object();
+    private final ScoreJournal journal;
+    private Map<Key, Best> pending = new HashMap<>();
+    private ScheduledExecutorService scheduler;
+    private long retryMillis;
+
+    public ScoreBuffer(ScoreWriter writer, LeaderboardCache cache, MeterRegistry meters,
+                       @Value("${score.write-behind.journal-dir:score-journal}") String journalDir,
+                       @Value("${score.write-behind.flush-interval:100ms}") Duration flushInterval) throws IOException {
+        this.writer = writer;
+        this.cache = cache;
+        this.flushMillis = flushInterval.toMillis();
+        synchronized (lock) {
+            journal = ScoreJournal.open(Path.of(journalDir), (username, score, epochSecond) -> merge(username, score, epochSecond));
+            if (!pending.isEmpty()) {
+                log.info("Replayed {} unflushed scores from {}", pending.size(), journalDir);
+            }
+        }
+        Gauge.builder("score.write-behind.pending", this, ScoreBuffer::size).register(meters);
+    }
+
+    /** Records the submission; once this returns it reaches Redis even if the process dies first. */
+    public void submit(String username, int score, Instant at) {
+        synchronized (lock) {
+            try {
+                journal.append(username, score, at.getEpochSecond());
+            } catch (IOException e) {
+                throw new UncheckedIOException("could not journal score of " + username, e);
+            }
+            merge(username, score, at.getEpochSecond());
+        }
+    }
+
+    public int size() {
+        synchronized (lock) {
+            return pending.size();
+        }
+    }
+
+    /** Writes everything submitted so far to Redis; returns false (keeping it for the next try) if that fails. */
+    public boolean flush() {
+        Map<Key, Best> batch;
+        long sealed;
+        synchronized (lock) {
+            if (pending.isEmpty()) return true;
+            try {
+                sealed = journal.rotate();
+            } catch (IOException e) {
+                log.warn("Could not rotate the score journal: {}", e.toString());
+                return false;
+            }
+            batch = pending;
+            pending = new HashMap<>();
+        }
+
+        List<Map.Entry<Key, Best>> entries = new ArrayList<>(batch.entrySet());
+        int written = 0;
+        try {
+            for (; written < entries.size(); written += BATCH_SIZE) {
+                write(entries.subList(written, Math.min(written + BATCH_SIZE, entries.size())));
+            }
+        } catch (RuntimeException e) {
+            synchronized (lock) {
+                for (Map.Entry<Key, Best> entry : entries.subList(written, entries.size())) {
+                    pending.merge(entry.getKey(), entry.getValue(), ScoreBuffer::better);
+                }
+            }
+            log.warn("Could not flush {} buffered scores, retrying: {}", entries.size() - written, e.toString());
+            return false;
+        }
+
+        synchronized (lock) {
+            try {
+                journal.deleteThrough(sealed);
+            } catch (IOException e) {
+                // replaying them later only rewrites scores Redis already has
+                log.warn("Could not delete flushed journal segments: {}", e.toString());
+            }
+        }
+        return true;
+    }
+
+    private void write(List<Map.Entry<Key, Best>> chunk) {
+        List<ScoreRequest> requests = new ArrayList<>(chunk.size());
+        List<Instant> at = new ArrayList<>(chunk.size());
+        for (Map.Entry<Key, Best> entry : chunk) {
+            ScoreRequest r = new ScoreRequest();
+            r.username = entry.getKey().username();
+            r.highScore = entry.getValue().score();
+            requests.add(r);
+            at.add(Instant.ofEpochSecond(entry.getValue().epochSecond()));
+        }
+        List<ScoreWriter.Result> results = writer.submitAll(requests, at);
+        for (int i = 0; i < results.size(); i++) {
+            ScoreRequest r = requests.get(i);
+            switch (results.get(i)) {
+                case UPDATED -> cache.onSubmit(r.username, r.highScore, at.get(i), true);
+                case UNCHANGED -> cache.onSubmit(r.username, r.highScore, at.get(i), false);
+                // the token proved the account existed when the score was accepted
+                case UNKNOWN_USER -> log.warn("Dropping buffered score of deleted user {}", r.username);
+            }
+        }
+    }
+
+    private void merge(String username, int score, long epochSecond) {
+        pending.merge(new Key(username, Math.floorDiv(epochSecond, SECONDS_PER_DAY)), new Best(score, epochSecond), ScoreBuffer::better);
+    }
+
+    private static Best better(Best a, Best b) {
+        return b.score() > a.score() ? b : a;
+    }
+
+    private void flushAndReschedule() {
+        retryMillis = flush() ? flushMillis : Math.min(Math.max(retryMillis, flushMillis) * 2, MAX_RETRY_MILLIS);
+        synchronized (lock) {
+            try {
+                journal.force();
+            } catch (IOException e) {
+                log.warn("Could not sync the score journal: {}", e.toString());
+            }
+        }
+        if (!scheduler.isShutdown()) {
+            scheduler.schedule(this::flushAndReschedule, retryMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "score-write-behind");
+            t.setDaemon(true);
+            return t;
+        });
+        retryMillis = flushMillis;
+        scheduler.schedule(this::flushAndReschedule, 0, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(MAX_RETRY_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // whatever does not make it stays in the journal for the next start
+        flush();
+        scheduler = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        synchronized (lock) {
+            journal.close();
+        }
+    }
+}
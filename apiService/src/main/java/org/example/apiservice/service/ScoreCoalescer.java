@@ -0,0 +1,94 @@
+package org.example.apiservice.service;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+Merges back-to-back submissions of the same user. While one write for a user is in flight, further
+submissions for that user only record their score and time; when the write returns, the thread that made it
+writes the maximum of the queued scores once, at the latest of their times, and hands that result to every queued caller.
+A client spamming /score therefore costs at most one script call per Redis round trip.
+ */
+@Component
+public class ScoreCoalescer {
+
+    /** Outcome of a (possibly merged) submission; {@code score} and {@code at} are what was actually written. */
+    public record Submitted(ScoreWriter.Result result, int score, Instant at) {}
+
+    private static final class Queued {
+        int maxScore = Integer.MIN_VALUE;
+        // the latest submission time, so a batch that crosses midnight lands on the new day's board
+        Instant at = Instant.MIN;
+        final CompletableFuture<Submitted> done = new CompletableFuture<>();
+    }
+
+    private final ScoreWriter writer;
+
+    // username -> submissions waiting for the in-flight write (an empty Queued = in flight, nobody waiting);
+    // all changes go through compute(), which is atomic per key
+    private final ConcurrentHashMap<String, Queued> inFlight = new ConcurrentHashMap<>();
+
+    public ScoreCoalescer(ScoreWriter writer) {
+        this.writer = writer;
+    }
+
+    public Submitted submit(String username, int score, Instant at) {
+        boolean[] writing = new boolean[1];
+        Queued queued = inFlight.compute(username, (k, current) -> {
+            if (current == null) {
+                writing[0] = true;
+                return new Queued();
+            }
+            current.maxScore = Math.max(current.maxScore, score);
+            if (at.isAfter(current.at)) current.at = at;
+            return current;
+        });
+        if (!writing[0]) {
+            try {
+                return queued.done.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException re ? re : e;
+            }
+        }
+
+        Submitted mine;
+        try {
+            mine = new Submitted(writer.submit(username, score, at), score, at);
+        } catch (RuntimeException e) {
+            drainAfterFailure(username, e);
+            throw e;
+        }
+        drain(username);
+        return mine;
+    }
+
+    // writes what queued up behind us, batch by batch, until nobody is waiting
+    private void drain(String username) {
+        while (true) {
+            Queued[] taken = new Queued[1];
+            inFlight.compute(username, (k, current) -> {
+                if (current.maxScore == Integer.MIN_VALUE) return null;
+                taken[0] = current;
+                return new Queued();
+            });
+            Queued batch = taken[0];
+            if (batch == null) return;
+            try {
+                batch.done.complete(new Submitted(writer.submit(username, batch.maxScore, batch.at), batch.maxScore, batch.at));
+            } catch (RuntimeException e) {
+                batch.done.completeExceptionally(e);
+                drainAfterFailure(username, e);
+                return;
+            }
+        }
+    }
+
+    private void drainAfterFailure(String username, RuntimeException e) {
+        Queued batch = inFlight.remove(username);
+        if (batch != null) batch.done.completeExceptionally(e);
+    }
+}
@@ -0,0 +1,157 @@
+package org.example.apiservice.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/*
+Append-only log of accepted score submissions for ScoreBuffer, one line "<epochSeconds> <score> <username>"
+per submission. The log is a directory of numbered segments. Only the newest segment is written to.
+rotate() seals it and starts the next one, and a sealed segment is deleted once everything in it
+has reached Redis.
+A line is handed to the OS before the submission is acknowledged, so it survives the process dying;
+force() also gets it to the disk, which is what survives the machine dying. Not thread-safe: ScoreBuffer
+calls it under its own lock.
+ */
+public class ScoreJournal implements AutoCloseable {
+    private static final String PREFIX = "scores-";
+    private static final String SUFFIX = ".log";
+
+    /** Receives every entry of the segments found on open(), oldest first. */
+    public interface Entry {
+        void accept(String username, int score, long epochSecond);
+    }
+
+    private final Path dir;
+    private FileChannel current;
+    private long currentSeq;
+
+    private ScoreJournal(Path dir) {
+        this.dir = dir;
+    }
+
+    /**
+     * Opens the journal in {@code dir}, replaying every segment left by an earlier run into {@code replay}
+     * (a line cut short by a crash is skipped), and starts a new segment after them. The replayed segments
+     * stay on disk until the next deleteThrough() covering them.
+     */
+    public static ScoreJournal open(Path dir, Entry replay) throws IOException {
+        Files.createDirectories(dir);
+        ScoreJournal journal = new ScoreJournal(dir);
+        long last = 0;
+        for (long seq : journal.segments()) {
+            journal.replay(journal.segment(seq), replay);
+            last = seq;
+        }
+        journal.startSegment(last + 1);
+        return journal;
+    }
+
+    public void append(String username, int score, long epochSecond) throws IOException {
+        ByteBuffer line = ByteBuffer.wrap((epochSecond + " " + score + " " + username + "\n").getBytes(StandardCharsets.US_ASCII));
+        while (line.hasRemaining()) {
+            current.write(line);
+        }
+    }
+
+    public void force() throws IOException {
+        current.force(false);
+    }
+
+    /**
+     * Seals the segment being written and starts the next one. Returns the number of the sealed segment:
+     * once what it holds is in Redis, pass it to deleteThrough().
+     */
+    public long rotate() throws IOException {
+        long sealed = currentSeq;
+        current.force(false);
+        current.close();
+        startSegment(sealed + 1);
+        return sealed;
+    }
+
+    /** Deletes the sealed segments numbered {@code seq} and below. */
+    public void deleteThrough(long seq) throws IOException {
+        for (long s : segments()) {
+            if (s <= seq && s != currentSeq) {
+                Files.deleteIfExists(segment(s));
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        current.force(false);
+        current.close();
+    }
+
+    private void startSegment(long seq) throws IOException {
+        current = FileChannel.open(segment(seq), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        currentSeq = seq;
+    }
+
+    private Path segment(long seq) {
+        return dir.resolve(PREFIX + String.format("%016d", seq) + SUFFIX);
+    }
+
+    private List<Long> segments() throws IOException {
+        List<Long> seqs = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            files.map(p -> p.getFileName().toString())
+                    .filter(n -> n.startsWith(PREFIX) && n.endsWith(SUFFIX))
+                    .forEach(n -> {
+                        try {
+                            seqs.add(Long.parseLong(n.substring(PREFIX.length(), n.length() - SUFFIX.length())));
+                        } catch (NumberFormatException ignored) {
+                            // not one of ours
+                        }
+                    });
+        }
+        seqs.sort(null);
+        return seqs;
+    }
+
+    private void replay(Path file, Entry replay) throws IOException {
+        // a crash can leave the last line without its newline; a cut-off username would credit someone else
+        boolean complete = endsWithNewline(file);
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.US_ASCII)) {
+            String l = in.readLine();
+            while (l != null) {
+                String next = in.readLine();
+                if (next != null || complete) {
+                    parse(l, replay);
+                }
+                l = next;
+            }
+        }
+    }
+
+    private static void parse(String l, Entry replay) {
+        int a = l.indexOf(' ');
+        int b = a < 0 ? -1 : l.indexOf(' ', a + 1);
+        if (b < 0 || b == l.length() - 1) return;
+        try {
+            replay.accept(l.substring(b + 1), Integer.parseInt(l.substring(a + 1, b)), Long.parseLong(l.substring(0, a)));
+        } catch (NumberFormatException ignored) {
+            // not a line append() wrote
+        }
+    }
+
+    private static boolean endsWithNewline(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size == 0) return true;
+            ByteBuffer last = ByteBuffer.allocate(1);
+            ch.read(last, size - 1);
+            return last.get(0) == '\n';
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package org.example.apiservice.service;
+
+import org.example.apiservice.dto.ScoreRequest;
+import org.example.apiservice.model.UserCodec;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/*
+Applies a score submission with a single Lua script call (EVALSHA): the compare-and-set of
+highScore/lastUpdate in the user record, the all-time leaderboard ZADD and the daily/weekly leaderboard ZADDs happen atomically in Redis.
+All of those keys live on the user's shard (see RedisShards), so the script never crosses instances.
+ */
+@Component
+public class ScoreWriter {
+
+    public enum Result { UPDATED, UNCHANGED, UNKNOWN_USER }
+
+    public static final RedisScript<Long> SUBMIT_SCORE =
+            RedisScript.of(new ClassPathResource("scripts/submit_score.lua"), Long.class);
+    private static final int SCRIPT_KEY_COUNT = 4;
+
+    private final RedisShards shards;
+
+    public ScoreWriter(RedisShards shards) {
+        this.shards = shards;
+    }
+
+    public Result submit(String username, int highScore) {
+        return submit(username, highScore, Instant.now());
+    }
+
+    public Result submit(String username, int highScore, Instant at) {
+        Long code = shards.forUser(username).execute(SUBMIT_SCORE, scriptKeys(username, at), scriptArgs(username, highScore, at).toArray());
+        return toResult(code);
+    }
+
+    /**
+     * Applies every submission in one pipeline. The script is (re)loaded at the head of the same
+     * pipeline, so the EVALSHAs behind it never hit NOSCRIPT and the batch costs a single round trip
+     * (one per shard, made in parallel).
+     */
+    public List<Result> submitAll(List<ScoreRequest> requests) {
+        return submitAll(requests, Instant.now());
+    }
+
+    public List<Result> submitAll(List<ScoreRequest> requests, Instant at) {
+        return submitAll(requests, Collections.nCopies(requests.size(), at));
+    }
+
+    /** Like submitAll(requests, at), but each submission is dated by the matching entry of {@code at}. */
+    public List<Result> submitAll(List<ScoreRequest> requests, List<Instant> at) {
+        if (requests.isEmpty()) return List.of();
+        List<List<Integer>> groups = shards.group(requests, r -> r.username);
+        Result[] results = new Result[requests.size()];
+        shards.scatter((shard, redis) -> {
+            List<Integer> mine = groups.get(shard);
+            if (mine.isEmpty()) return null;
+            List<Object> replies = redis.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection conn = (StringRedisConnection) connection;
+                conn.scriptLoad(SUBMIT_SCORE.getScriptAsString());
+                for (int i : mine) {
+                    ScoreRequest r = requests.get(i);
+                    List<String> keysAndArgs = new ArrayList<>(scriptKeys(r.username, at.get(i)));
+                    keysAndArgs.addAll(scriptArgs(r.username, r.highScore, at.get(i)));
+                    conn.evalSha(SUBMIT_SCORE.getSha1(), ReturnType.INTEGER, SCRIPT_KEY_COUNT, keysAndArgs.toArray(String[]::new));
+                }
+                return null;
+            });
+            for (int j = 0; j < mine.size(); j++) {
+                results[mine.get(j)] = toResult((Long) replies.get(j + 1));
+            }
+            return null;
+        });
+        return Arrays.asList(results);
+    }
+
+    // the windowed boards follow in enum order (day, then week), each with the end of its period
+    public static List<String> scriptKeys(String username, Instant at) {
+        List<String> keys = new ArrayList<>(List.of(userKey(username), LeaderboardIndex.KEY));
+        for (LeaderboardWindow w : LeaderboardWindow.values()) {
+            if (w.expiresAt(at).isPresent()) keys.add(w.key(at));
+        }
+        return keys;
+    }
+
+    public static List<String> scriptArgs(String username, int highScore, Instant at) {
+        List<String> args = new ArrayList<>(List.of(username, String.valueOf(highScore), String.valueOf(at.getEpochSecond())));
+        for (LeaderboardWindow w : LeaderboardWindow.values()) {
+            w.expiresAt(at).ifPresent(end -> args.add(String.valueOf(end.getEpochSecond())));
+        }
+        return args;
+    }
+
+    public static String userKey(String username) {
+        return UserCodec.key(username);
+    }
+
+    public static Result toResult(Long code) {
+        if (code == null) throw new IllegalStateException("submit_score.lua returned nothing");
+        return switch (code.intValue()) {
+            case 1 -> Result.UPDATED;
+            case 0 -> Result.UNCHANGED;
+            case -1 -> Result.UNKNOWN_USER;
+            default -> throw new IllegalStateException("unexpected submit_score.lua result " + code);
+        };
+    }
+}
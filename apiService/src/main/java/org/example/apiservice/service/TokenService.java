@@ -0,0 +1,126 @@
+package org.example.apiservice.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+Stateless session tokens of the form "<username>.<expiresAtEpochSecond>.<HMAC-SHA256 signature>".
+Verified tokens are remembered in a small bounded map so repeat calls skip the HMAC as well.
+Also recognises the shared service key used by trusted relays/importers.
+ */
+@Component
+public class TokenService {
+    private static final Logger log = LoggerFactory.getLogger(TokenService.class);
+    private static final int MAX_CACHED_TOKENS = 10_000;
+
+    public record Token(String value, Instant expiresAt) {}
+
+    private record Verified(String username, long expiresAt) {}
+
+    private final byte[] secret;
+    private final Duration ttl;
+    private final byte[] serviceKey;
+    private final Clock clock;
+    private final Map<String, Verified> verified = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TokenService(@Value("${auth.token.secret:}") String secret,
+                        @Value("${auth.token.ttl:2h}") Duration ttl,
+                        @Value("${api.service-key:}") String serviceKey) {
+        this(secret, ttl, serviceKey, Clock.systemUTC());
+    }
+
+    TokenService(String secret, Duration ttl, String serviceKey, Clock clock) {
+        if (secret == null || secret.isBlank()) {
+            log.warn("auth.token.secret is not set, using a random key: tokens will not survive a restart "
+                    + "or be accepted by other instances");
+            byte[] random = new byte[32];
+            new SecureRandom().nextBytes(random);
+            this.secret = random;
+        } else {
+            this.secret = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        this.ttl = ttl;
+        this.serviceKey = serviceKey == null ? new byte[0] : serviceKey.getBytes(StandardCharsets.UTF_8);
+        this.clock = clock;
+    }
+
+    public Token issue(String username) {
+        Instant expiresAt = clock.instant().plus(ttl);
+        String payload = username + "." + expiresAt.getEpochSecond();
+        return new Token(payload + "." + sign(payload), expiresAt);
+    }
+
+    /**
+     * Returns the username the token was issued to, or null if it is malformed, forged or expired.
+     */
+    public String verify(String token) {
+        if (token == null) return null;
+        long now = clock.instant().getEpochSecond();
+        Verified cached = verified.get(token);
+        if (cached != null) {
+            if (cached.expiresAt() > now) return cached.username();
+            verified.remove(token);
+            return null;
+        }
+        int sig = token.lastIndexOf('.');
+        int exp = sig > 0 ? token.lastIndexOf('.', sig - 1) : -1;
+        if (exp <= 0) return null;
+        String payload = token.substring(0, sig);
+        byte[] expected = sign(payload).getBytes(StandardCharsets.US_ASCII);
+        if (!MessageDigest.isEqual(expected, token.substring(sig + 1).getBytes(StandardCharsets.US_ASCII))) {
+            return null;
+        }
+        long expiresAt;
+        try {
+            expiresAt = Long.parseLong(payload.substring(exp + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (expiresAt <= now) return null;
+        String username = payload.substring(0, exp);
+        if (verified.size() >= MAX_CACHED_TOKENS) verified.clear();
+        verified.put(token, new Verified(username, expiresAt));
+        return username;
+    }
+
+    /**
+     * Verifies the token of an "Authorization: Bearer ..." header value.
+     */
+    public String verifyBearer(String authorization) {
+        if (authorization == null || !authorization.startsWith("Bearer ")) return null;
+        return verify(authorization.substring("Bearer ".length()).trim());
+    }
+
+    public boolean isServiceKey(String apiKey) {
+        return serviceKey.length > 0 && apiKey != null
+                && MessageDigest.isEqual(serviceKey, apiKey.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String sign(String payload) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret, "HmacSHA256"));
+            byte[] sig = mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(sig);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package org.example.apiservice.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.example.apiservice.model.User;
+import org.example.apiservice.model.UserCodec;
+import org.example.apiservice.repo.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/*
+Bulk export and import of every account with its high score, for backups, moving between Redis
+instances and seeding test environments. Both directions stream: export walks the records with SCAN
+and fetches them BATCH_SIZE at a time in one pipeline; import parses one record at a time and writes
+BATCH_SIZE of them per pipeline. Memory stays flat however many accounts there are.
+SCAN may return a key twice while Redis rehashes; importing the repeat is harmless.
+With several shards, export walks them one after the other and import writes each batch to all of them at once.
+Exporting and re-importing is also how accounts move when shards are added or removed (see RedisShards).
+
+Formats: NDJSON, one {"username", "password", "highScore", "lastUpdate"} object per line, or BINARY, the
+magic "FBU1" followed by (username as writeUTF, record length as int, UserCodec record) per account.
+The all-time leaderboard is rebuilt from the high scores; the daily and weekly boards are not carried over.
+An NDJSON row missing a field or breaking the API's rules for usernames and scores is logged with its line
+number and counted as skipped.
+ */
+@Component
+public class UserTransfer {
+    private static final Logger log = LoggerFactory.getLogger(UserTransfer.class);
+    private static final int BATCH_SIZE = 1000;
+    private static final byte[] MAGIC = "FBU1".getBytes(StandardCharsets.US_ASCII);
+    private static final long PROGRESS_NANOS = 5_000_000_000L;
+    private static final RedisScript<Long> IMPORT_USER =
+            RedisScript.of(new ClassPathResource("scripts/import_user.lua"), Long.class);
+
+    public enum Format { NDJSON, BINARY }
+
+    public record Summary(long written, long skipped, double seconds) {
+        public double rowsPerSecond() {
+            return seconds == 0 ? written + skipped : (written + skipped) / seconds;
+        }
+    }
+
+    // one NDJSON line; boxed so that a missing field reads as null rather than 0
+    record UserLine(String username, String password, Integer highScore, Instant lastUpdate) {}
+
+    // the rules UserDto and ScoreRequest apply to what the API accepts
+    private static final Pattern USERNAME = Pattern.compile("[A-Za-z0-9]{3,20}");
+    private static final int MAX_SCORE = 999999;
+
+    private final RedisShards shards;
+    private final UserRepository repo;
+    private final ObjectMapper mapper;
+
+    public UserTransfer(RedisShards shards, UserRepository repo, ObjectMapper mapper) {
+        this.shards = shards;
+        this.repo = repo;
+        this.mapper = mapper;
+    }
+
+    public Summary export(OutputStream out, Format format) throws IOException {
+        Progress progress = new Progress("exported");
+        ScanOptions records = ScanOptions.scanOptions().match(UserCodec.KEY_PREFIX + "*").count(BATCH_SIZE).build();
+        try (Sink sink = sink(out, format)) {
+            List<String> batch = new ArrayList<>(BATCH_SIZE);
+            for (StringRedisTemplate redis : shards.all()) {
+                try (Cursor<String> keys = redis.scan(records)) {
+                    while (keys.hasNext()) {
+                        batch.add(keys.next().substring(UserCodec.KEY_PREFIX.length()));
+                        if (batch.size() == BATCH_SIZE || !keys.hasNext()) {
+                            List<User> users = repo.findAllByUsername(batch);
+                            for (User u : users) sink.write(u);
+                            progress.add(users.size(), 0);
+                            batch.clear();
+                        }
+                    }
+                }
+            }
+        }
+        return progress.finish();
+    }
+
+    /**
+     * Existing accounts are kept unless {@code overwrite} is set; they count as skipped.
+     */
+    public Summary importFrom(InputStream in, Format format, boolean overwrite) throws IOException {
+        Progress progress = new Progress("imported");
+        List<User> batch = new ArrayList<>(BATCH_SIZE);
+        try (Source source = source(in, format, progress)) {
+            User u;
+            while ((u = source.next()) != null) {
+                batch.add(u);
+                if (batch.size() == BATCH_SIZE) write(batch, overwrite, progress);
+            }
+        }
+        write(batch, overwrite, progress);
+        return progress.finish();
+    }
+
+    // the script is (re)loaded at the head of the pipeline, as in ScoreWriter.submitAll
+    private void write(List<User> batch, boolean overwrite, Progress progress) {
+        if (batch.isEmpty()) return;
+        byte[] board = LeaderboardIndex.KEY.getBytes(StandardCharsets.UTF_8);
+        byte[] overwriteArg = (overwrite ? "1" : "0").getBytes(StandardCharsets.UTF_8);
+        byte[] script = IMPORT_USER.getScriptAsString().getBytes(StandardCharsets.UTF_8);
+        List<List<Integer>> groups = shards.group(batch, User::getUsername);
+        List<Long> perShard = shards.scatter((shard, redis) -> {
+            List<Integer> mine = groups.get(shard);
+            if (mine.isEmpty()) return 0L;
+            List<Object> replies = redis.executePipelined((RedisCallback<Object>) c -> {
+                c.scriptingCommands().scriptLoad(script);
+                for (int i : mine) {
+                    User u = batch.get(i);
+                    byte[] name = u.getUsername().getBytes(StandardCharsets.UTF_8);
+                    c.scriptingCommands().evalSha(IMPORT_USER.getSha1(), ReturnType.INTEGER, 2,
+                            UserCodec.key(u.getUsername()).getBytes(StandardCharsets.UTF_8), board, UserCodec.encode(u),
+                            String.valueOf(u.getHighScore()).getBytes(StandardCharsets.UTF_8), name, overwriteArg);
+                }
+                return null;
+            });
+            long ok = 0;
+            for (int i = 1; i < replies.size(); i++) {
+                if (Long.valueOf(1).equals(replies.get(i))) ok++;
+            }
+            return ok;
+        });
+        long written = perShard.stream().mapToLong(Long::longValue).sum();
+        progress.add(written, batch.size() - written);
+        batch.clear();
+    }
+
+    private interface Sink extends AutoCloseable {
+        void write(User user) throws IOException;
+
+        @Override
+        void close() throws IOException;
+    }
+
+    private interface Source extends AutoCloseable {
+        /** The next account, or null at the end of the input. */
+        User next() throws IOException;
+
+        @Override
+        void close() throws IOException;
+    }
+
+    private Sink sink(OutputStream out, Format format) throws IOException {
+        if (format == Format.NDJSON) {
+            JsonGenerator json = mapper.getFactory().createGenerator(out).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.setRootValueSeparator(null); // the newline is the separator
+            ObjectWriter writer = mapper.writerFor(UserLine.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            return new Sink() {
+                @Override
+                public void write(User u) throws IOException {
+                    writer.writeValue(json, new UserLine(u.getUsername(), u.getPassword(), u.getHighScore(), u.getLastUpdate()));
+                    json.writeRaw('\n');
+                }
+
+                @Override
+                public void close() throws IOException {
+                    json.close();
+                }
+            };
+        }
+        DataOutputStream data = new DataOutputStream(out);
+        data.write(MAGIC);
+        return new Sink() {
+            @Override
+            public void write(User u) throws IOException {
+                byte[] record = UserCodec.encode(u);
+                data.writeUTF(u.getUsername());
+                data.writeInt(record.length);
+                data.write(record);
+            }
+
+            @Override
+            public void close() throws IOException {
+                data.flush();
+            }
+        };
+    }
+
+    private Source source(InputStream in, Format format, Progress progress) throws IOException {
+        if (format == Format.NDJSON) {
+            MappingIterator<UserLine> lines = mapper.readerFor(UserLine.class).readValues(in);
+            return new Source() {
+                @Override
+                public User next() throws IOException {
+                    while (lines.hasNextValue()) {
+                        UserLine line = lines.nextValue();
+                        String problem = problem(line);
+                        if (problem == null) {
+                            User u = new User(line.username(), line.password());
+                            u.setHighScore(line.highScore());
+                            u.setLastUpdate(line.lastUpdate());
+                            return u;
+                        }
+                        log.warn("skipping line {}: {}", lines.getCurrentLocation().getLineNr(), problem);
+                        progress.add(0, 1);
+                    }
+                    return null;
+                }
+
+                @Override
+                public void close() throws IOException {
+                    lines.close();
+                }
+            };
+        }
+        DataInputStream data = new DataInputStream(in);
+        byte[] magic = data.readNBytes(MAGIC.length);
+        if (!Arrays.equals(MAGIC, magic)) {
+            throw new IOException("not a binary user export (missing FBU1 header)");
+        }
+        return new Source() {
+            @Override
+            public User next() throws IOException {
+                String username;
+                try {
+                    username = data.readUTF();
+                } catch (EOFException end) {
+                    return null;
+                }
+                int length = data.readInt();
+                if (length <= UserCodec.PASSWORD_OFFSET || length > UserCodec.MAX_LENGTH) {
+                    throw new IOException("corrupt binary user export: record of " + username + " is " + length + " bytes");
+                }
+                byte[] record = new byte[length];
+                data.readFully(record);
+                return UserCodec.decode(username, record);
+            }
+
+            @Override
+            public void close() throws IOException {
+                data.close();
+            }
+        };
+    }
+
+    private static String problem(UserLine line) {
+        if (line.username() == null || !USERNAME.matcher(line.username()).matches()) {
+            return "username must be 3-20 letters or digits";
+        }
+        if (line.password() == null || line.password().isEmpty()) return "no password";
+        if (line.highScore() == null || line.highScore() < 0 || line.highScore() > MAX_SCORE) {
+            return "highScore must be 0-" + MAX_SCORE;
+        }
+        if (line.lastUpdate() == null) return "no lastUpdate";
+        return null;
+    }
+
+    // logs rows and rows per second every PROGRESS_NANOS, and once at the end
+    private static final class Progress {
+        private final String verb;
+        private final long startNanos = System.nanoTime();
+        private long lastLogNanos = startNanos;
+        private long written;
+        private long skipped;
+
+        Progress(String verb) {
+            this.verb = verb;
+        }
+
+        void add(long written, long skipped) {
+            this.written += written;
+            this.skipped += skipped;
+            long now = System.nanoTime();
+            if (now - lastLogNanos >= PROGRESS_NANOS) {
+                lastLogNanos = now;
+                log.info("{} {} users, {} skipped ({} rows/s)", verb, this.written, this.skipped,
+                        Math.round((this.written + this.skipped) / ((now - startNanos) / 1e9)));
+            }
+        }
+
+        Summary finish() {
+            Summary summary = new Summary(written, skipped, (System.nanoTime() - startNanos) / 1e9);
+            log.info("{} {} users, {} skipped in {} s ({} rows/s)", verb, written, skipped,
+                    String.format("%.1f", summary.seconds()), Math.round(summary.rowsPerSecond()));
+            return summary;
+        }
+    }
+}
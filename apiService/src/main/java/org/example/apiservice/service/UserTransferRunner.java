@@ -0,0 +1,53 @@
+package org.example.apiservice.service;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/*
+Command-line front end of UserTransfer: run the service with --users.export=<file> or --users.import=<file>
+and it transfers the accounts, then exits instead of serving: ApiServiceApplication starts such a run without
+a web server and exits once the runners are done. The format comes from --users.format (ndjson or binary, default ndjson);
+--users.import-overwrite=true replaces accounts that already exist.
+ */
+@Component
+@ConditionalOnExpression("'${users.export:}' != '' or '${users.import:}' != ''")
+public class UserTransferRunner implements ApplicationRunner {
+    private final UserTransfer transfer;
+    private final Environment env;
+
+    public UserTransferRunner(UserTransfer transfer, Environment env) {
+        this.transfer = transfer;
+        this.env = env;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        UserTransfer.Format format = UserTransfer.Format.valueOf(
+                env.getProperty("users.format", "ndjson").toUpperCase(Locale.ROOT));
+        String export = env.getProperty("users.export", "");
+        String importFile = env.getProperty("users.import", "");
+        if (!export.isEmpty()) {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(Path.of(export)), 1 << 16)) {
+                transfer.export(out, format);
+            }
+        }
+        if (!importFile.isEmpty()) {
+            boolean overwrite = env.getProperty("users.import-overwrite", Boolean.class, false);
+            try (InputStream in = new BufferedInputStream(Files.newInputStream(Path.of(importFile)), 1 << 16)) {
+                transfer.importFrom(in, format, overwrite);
+            }
+        }
+    }
+}
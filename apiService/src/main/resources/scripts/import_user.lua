@@ -0,0 +1,11 @@
+-- Writes one imported account and its all-time leaderboard entry.
+-- KEYS[1] = user record, KEYS[2] = all-time leaderboard
+-- ARGV[1] = encoded record (see UserCodec), ARGV[2] = highScore, ARGV[3] = username, ARGV[4] = "1" to overwrite
+-- Returns 1 written, 0 skipped because the account already exists.
+if ARGV[4] == '1' then
+    redis.call('SET', KEYS[1], ARGV[1])
+elseif not redis.call('SET', KEYS[1], ARGV[1], 'NX') then
+    return 0
+end
+redis.call('ZADD', KEYS[2], ARGV[2], ARGV[3])
+return 1
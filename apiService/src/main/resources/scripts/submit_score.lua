@@ -0,0 +1,42 @@
+-- Atomic high-score compare-and-set. The caller has already authenticated the user.
+-- KEYS[1] = user record (binary, see UserCodec), KEYS[2] = all-time leaderboard,
+-- KEYS[3] = daily leaderboard, KEYS[4] = weekly leaderboard
+-- ARGV[1] = username, ARGV[2] = score, ARGV[3] = lastUpdate (epoch seconds),
+-- ARGV[4] = daily expiry, ARGV[5] = weekly expiry (epoch seconds)
+-- Returns -1 unknown user, 0 score not higher than the all-time high score, 1 updated.
+-- Any board that changed is published on "<all-time key>:changes" as "<score> <username> <board key>..."
+-- for LeaderboardFeed, which drops the cached pages of those boards on every instance.
+local user = redis.call('GET', KEYS[1])
+if not user then
+    return -1
+end
+-- highScore is the int32 after the version byte (Lua strings are 1-based)
+local current = struct.unpack('>i4', user, 2)
+local score = tonumber(ARGV[2])
+-- the windowed boards keep the best score of the period, even when it is below the all-time high score;
+-- a key only gets its expiry once, when it is created by its first member
+local changed = {}
+if redis.call('ZADD', KEYS[3], 'GT', 'CH', score, ARGV[1]) == 1 then
+    changed[#changed + 1] = KEYS[3]
+    if redis.call('TTL', KEYS[3]) == -1 then
+        redis.call('EXPIREAT', KEYS[3], ARGV[4])
+    end
+end
+if redis.call('ZADD', KEYS[4], 'GT', 'CH', score, ARGV[1]) == 1 then
+    changed[#changed + 1] = KEYS[4]
+    if redis.call('TTL', KEYS[4]) == -1 then
+        redis.call('EXPIREAT', KEYS[4], ARGV[5])
+    end
+end
+local result = 0
+if score > current then
+    -- highScore and lastUpdate are overwritten in place; the password part is left alone
+    redis.call('SETRANGE', KEYS[1], 1, struct.pack('>i4I4', score, tonumber(ARGV[3])))
+    redis.call('ZADD', KEYS[2], score, ARGV[1])
+    changed[#changed + 1] = KEYS[2]
+    result = 1
+end
+if #changed > 0 then
+    redis.call('PUBLISH', KEYS[2] .. ':changes', ARGV[2] .. ' ' .. ARGV[1] .. ' ' .. table.concat(changed, ' '))
+end
+return result
@@ -0,0 +1,9 @@
+-- Replaces the password part of a user record (see UserCodec), keeping highScore/lastUpdate as they are.
+-- KEYS[1] = user record, ARGV[1] = encoded password part, ARGV[2] = offset of the password part
+-- Returns 0 unknown user, 1 updated.
+local head = redis.call('GETRANGE', KEYS[1], 0, tonumber(ARGV[2]) - 1)
+if head == '' then
+    return 0
+end
+redis.call('SET', KEYS[1], head .. ARGV[1])
+return 1
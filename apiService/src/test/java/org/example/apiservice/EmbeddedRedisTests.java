@@ -0,0 +1,67 @@
+package org.example.apiservice;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInfo;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/*
+Base class for tests that need a real Redis: starts an embedded redis-server on a free port
+and points spring.data.redis at it. A class annotated with @ExtraShards gets that many more servers,
+and redis.shards lists all of them, the first one included.
+ */
+public abstract class EmbeddedRedisTests {
+    private static final List<RedisServer> redisServers = new ArrayList<>();
+    private static final List<Integer> redisPorts = new ArrayList<>();
+
+    @Target(ElementType.TYPE)
+    @Retention(RetentionPolicy.RUNTIME)
+    public @interface ExtraShards {
+        int value();
+    }
+
+    @BeforeAll
+    static void startRedis(TestInfo test) throws IOException {
+        int extra = test.getTestClass().map(c -> c.getAnnotation(ExtraShards.class)).map(ExtraShards::value).orElse(0);
+        for (int i = 0; i <= extra; i++) {
+            try (ServerSocket socket = new ServerSocket(0)) {
+                redisPorts.add(socket.getLocalPort());
+            }
+            RedisServer server = new RedisServer(redisPorts.get(i));
+            server.start();
+            redisServers.add(server);
+        }
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        for (RedisServer server : redisServers) {
+            server.stop();
+        }
+        redisServers.clear();
+        redisPorts.clear();
+    }
+
+    protected static int redisPort() {
+        return redisPorts.get(0);
+    }
+
+    @DynamicPropertySource
+    static void redisProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.redis.port", EmbeddedRedisTests::redisPort);
+        registry.add("redis.shards", () -> redisPorts.size() == 1 ? ""
+                : redisPorts.stream().map(p -> "redis://localhost:" + p).collect(Collectors.joining(",")));
+    }
+}
@@ -0,0 +1,70 @@
+package org.example.apiservice.controler;
+
+import org.example.apiservice.EmbeddedRedisTests;
+import org.example.apiservice.model.User;
+import org.example.apiservice.repo.UserRepository;
+import org.example.apiservice.service.ScoreWriter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// the context is bound to this class's embedded Redis, which is stopped after the class
+@SpringBootTest
+@AutoConfigureMockMvc
+@DirtiesContext
+class ApiControllerTests extends EmbeddedRedisTests {
+    @Autowired
+    MockMvc mvc;
+    @Autowired
+    UserRepository repo;
+    @Autowired
+    ScoreWriter scoreWriter;
+
+    @Test
+    void rankIsThePositionOnTheAllTimeLeaderboard() throws Exception {
+        for (String name : new String[] {"amy", "bob", "cat", "dan"}) {
+            repo.save(new User(name, "pw"));
+        }
+        scoreWriter.submit("cat", 70);
+        scoreWriter.submit("amy", 50);
+        scoreWriter.submit("bob", 50);
+
+        mvc.perform(get("/api/users/cat/rank"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.username").value("cat"))
+                .andExpect(jsonPath("$.highScore").value(70))
+                .andExpect(jsonPath("$.rank").value(1))
+                .andExpect(jsonPath("$.totalPlayers").value(3));
+
+        // equal scores get distinct ranks, in the order /leaderboard lists them
+        mvc.perform(get("/api/leaderboard"))
+                .andExpect(jsonPath("$[1].username").value("bob"))
+                .andExpect(jsonPath("$[2].username").value("amy"));
+        mvc.perform(get("/api/users/bob/rank"))
+                .andExpect(jsonPath("$.highScore").value(50))
+                .andExpect(jsonPath("$.rank").value(2));
+        mvc.perform(get("/api/users/amy/rank"))
+                .andExpect(jsonPath("$.highScore").value(50))
+                .andExpect(jsonPath("$.rank").value(3));
+    }
+
+    @Test
+    void aUserWithoutALeaderboardEntryIsNotFound() throws Exception {
+        // an account that never submitted a score has no entry
+        repo.save(new User("eve", "pw"));
+
+        mvc.perform(get("/api/users/eve/rank"))
+                .andExpect(status().isNotFound())
+                .andExpect(content().string("user not found"));
+        mvc.perform(get("/api/users/nobody/rank"))
+                .andExpect(status().isNotFound());
+    }
+}
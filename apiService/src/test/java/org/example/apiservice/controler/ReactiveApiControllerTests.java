@@ -0,0 +1,68 @@
+package org.example.apiservice.controler;
+
+import org.example.apiservice.EmbeddedRedisTests;
+import org.example.apiservice.dto.LoginResponse;
+import org.example.gameengine.Autopilot;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.main.web-application-type=reactive")
+@ActiveProfiles("reactive")
+class ReactiveApiControllerTests extends EmbeddedRedisTests {
+    @Autowired
+    WebTestClient web;
+
+    @Test
+    void registerScoreAndReadLeaderboard() {
+        Map<String, String> credentials = Map.of("username", "flux", "password", "pw123");
+        LoginResponse login = web.post().uri("/api/register").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(credentials)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(LoginResponse.class).returnResult().getResponseBody();
+        assertNotNull(login);
+
+        web.post().uri("/api/register").contentType(MediaType.APPLICATION_JSON).bodyValue(credentials)
+                .exchange().expectStatus().isEqualTo(409);
+        web.post().uri("/api/login").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("username", "flux", "password", "wrong"))
+                .exchange().expectStatus().isUnauthorized();
+
+        Autopilot.Run run = Autopilot.play(7, 42);
+        Map<String, Object> replay = Map.of("seed", run.seed(), "jumps", run.jumps());
+        web.post().uri("/api/score").contentType(MediaType.APPLICATION_JSON)
+                .header("Authorization", "Bearer " + login.token)
+                .bodyValue(Map.of("username", "flux", "highScore", 43, "replay", replay))
+                .exchange().expectStatus().isEqualTo(422);
+        web.post().uri("/api/score").contentType(MediaType.APPLICATION_JSON)
+                .header("Authorization", "Bearer " + login.token)
+                .bodyValue(Map.of("username", "flux", "highScore", 42, "replay", replay))
+                .exchange().expectStatus().isOk();
+
+        String etag = web.get().uri("/api/leaderboard")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].username").isEqualTo("flux")
+                .jsonPath("$[0].highScore").isEqualTo(42)
+                .returnResult().getResponseHeaders().getETag();
+        web.get().uri("/api/leaderboard").header("If-None-Match", etag)
+                .exchange().expectStatus().isNotModified();
+
+        web.get().uri("/api/users/flux/rank")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.rank").isEqualTo(1)
+                .jsonPath("$.highScore").isEqualTo(42);
+    }
+}
@@ -0,0 +1,75 @@
+package org.example.apiservice.controler;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.apiservice.EmbeddedRedisTests;
+import org.example.apiservice.model.User;
+import org.example.apiservice.repo.UserRepository;
+import org.example.apiservice.service.ScoreBuffer;
+import org.example.apiservice.service.TokenService;
+import org.example.gameengine.Autopilot;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// the flush interval is long enough that nothing leaves the buffer while the test looks at it
+@SpringBootTest(properties = {"score.write-behind.enabled=true", "score.write-behind.flush-interval=1h"})
+@AutoConfigureMockMvc
+@DirtiesContext
+class WriteBehindBatchTests extends EmbeddedRedisTests {
+    @Autowired
+    MockMvc mvc;
+    @Autowired
+    ObjectMapper json;
+    @Autowired
+    ScoreBuffer buffer;
+    @Autowired
+    TokenService tokens;
+    @Autowired
+    UserRepository repo;
+
+    @DynamicPropertySource
+    static void journalDir(DynamicPropertyRegistry registry) throws IOException {
+        String dir = Files.createTempDirectory("score-journal").toString();
+        registry.add("score.write-behind.journal-dir", () -> dir);
+    }
+
+    @Test
+    void batchSubmitGoesThroughTheBuffer() throws Exception {
+        repo.save(new User("batcher", "pw"));
+        Autopilot.Run run = Autopilot.play(7, 42);
+        Map<String, Object> replay = Map.of("seed", run.seed(), "jumps", run.jumps());
+        List<Map<String, Object>> batch = List.of(
+                Map.of("username", "batcher", "highScore", 42, "replay", replay),
+                Map.of("username", "batcher", "highScore", 43, "replay", replay),
+                Map.of("username", "someoneelse", "highScore", 42, "replay", replay));
+
+        mvc.perform(post("/api/scores/batch").contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + tokens.issue("batcher").value())
+                        .content(json.writeValueAsString(batch)))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$[0].status").value("accepted"))
+                .andExpect(jsonPath("$[1].status").value("rejected"))
+                .andExpect(jsonPath("$[2].status").value("forbidden"));
+
+        assertEquals(1, buffer.size());
+        assertEquals(0, repo.findByUsername("batcher").orElseThrow().getHighScore());
+        buffer.flush();
+        assertEquals(42, repo.findByUsername("batcher").orElseThrow().getHighScore());
+    }
+}
@@ -0,0 +1,105 @@
+package org.example.apiservice.repo;
+
+import org.example.apiservice.EmbeddedRedisTests;
+import org.example.apiservice.model.User;
+import org.example.apiservice.model.UserCodec;
+import org.example.apiservice.service.PasswordHasher;
+import org.example.apiservice.service.ScoreWriter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// the context is bound to this class's embedded Redis, which is stopped after the class;
+// legacy accounts are written after startup, so the migration has to look for them on every miss
+@SpringBootTest(properties = "users.legacy-recheck-interval=0s")
+@DirtiesContext
+class UserRepositoryTests extends EmbeddedRedisTests {
+    @Autowired
+    UserRepository repo;
+    @Autowired
+    LegacyUserMigration migration;
+    @Autowired
+    ScoreWriter scoreWriter;
+    @Autowired
+    PasswordHasher passwordHasher;
+    @Autowired
+    StringRedisTemplate redis;
+
+    @Test
+    void recordsRoundTripInTheCompactLayout() {
+        String hash = passwordHasher.hash("secret");
+        User user = new User("compact", hash);
+        user.setHighScore(123_456);
+        user.setLastUpdate(Instant.parse("2026-10-18T12:00:00Z"));
+
+        byte[] encoded = UserCodec.encode(user);
+        // 9 byte header + kind, iterations, salt length + 16 byte salt + 32 byte hash
+        assertEquals(9 + 1 + 4 + 1 + 16 + 32, encoded.length);
+
+        User decoded = UserCodec.decode("compact", encoded);
+        assertEquals(123_456, decoded.getHighScore());
+        assertEquals(user.getLastUpdate(), decoded.getLastUpdate());
+        assertTrue(passwordHasher.matches("secret", decoded.getPassword()));
+        assertEquals("plain", UserCodec.decode("x", UserCodec.encode(new User("x", "plain"))).getPassword());
+    }
+
+    @Test
+    void scoreAndPasswordUpdatesLeaveEachOtherAlone() {
+        repo.save(new User("both", "old"));
+        scoreWriter.submit("both", 17);
+        repo.updatePassword("both", passwordHasher.hash("new"));
+        scoreWriter.submit("both", 12);
+
+        User user = repo.findByUsername("both").orElseThrow();
+        assertEquals(17, user.getHighScore());
+        assertTrue(passwordHasher.matches("new", user.getPassword()));
+        assertFalse(repo.create(new User("both", "again")));
+    }
+
+    @Test
+    void legacyHashesAreConverted() {
+        redis.opsForHash().putAll("User:legacy", Map.of(
+                "_class", User.class.getName(),
+                "username", "legacy",
+                "password", "pwlegacy",
+                "highScore", "42",
+                "lastUpdate", "2026-10-18T12:01:30.937524057Z"));
+        redis.opsForSet().add("User", "legacy", "early");
+        redis.opsForHash().put("User:early", "password", "pwearly");
+
+        assertEquals(42, repo.findByUsername("legacy").orElseThrow().getHighScore());
+        assertEquals(1, migration.migrateAll());
+
+        assertFalse(redis.hasKey("User:legacy"));
+        assertFalse(redis.hasKey("User"));
+        assertEquals("pwearly", repo.findByUsername("early").orElseThrow().getPassword());
+        assertEquals(ScoreWriter.Result.UPDATED, scoreWriter.submit("legacy", 43));
+    }
+
+    @Test
+    void withNoLegacyAccountsLeftAMissIsNoLegacyLookup() {
+        assertFalse(redis.hasKey("User"));
+        long before = calls("hgetall");
+
+        assertTrue(repo.findByUsername("nobody").isEmpty());
+        assertTrue(repo.create(new User("somebody", "pw")));
+
+        assertEquals(before, calls("hgetall"));
+    }
+
+    private long calls(String command) {
+        Properties stats = redis.execute((RedisCallback<Properties>) c -> c.serverCommands().info("commandstats"));
+        String line = stats.getProperty("cmdstat_" + command);
+        // "calls=3,usec=...", absent until the first call
+        return line == null ? 0 : Long.parseLong(line.substring("calls=".length(), line.indexOf(',')));
+    }
+}
@@ -0,0 +1,67 @@
+package org.example.apiservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuthenticationTests {
+    private final Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+    @Test
+    void issuedTokenVerifiesToItsUser() {
+        TokenService tokens = new TokenService("secret", Duration.ofHours(2), "", Clock.fixed(now, ZoneOffset.UTC));
+        TokenService.Token token = tokens.issue("alice");
+
+        assertEquals("alice", tokens.verify(token.value()));
+        assertEquals(now.plus(Duration.ofHours(2)), token.expiresAt());
+    }
+
+    @Test
+    void rejectsTamperedAndForeignTokens() {
+        TokenService tokens = new TokenService("secret", Duration.ofHours(2), "", Clock.fixed(now, ZoneOffset.UTC));
+        String token = tokens.issue("alice").value();
+
+        assertNull(tokens.verify(token.replaceFirst("alice", "mallory")));
+        assertNull(tokens.verify(new TokenService("other", Duration.ofHours(2), "").issue("alice").value()));
+        assertNull(tokens.verify("garbage"));
+        assertNull(tokens.verify(null));
+    }
+
+    @Test
+    void rejectsExpiredTokenEvenWhenCached() {
+        MutableClock clock = new MutableClock(now);
+        TokenService tokens = new TokenService("secret", Duration.ofMinutes(5), "", clock);
+        String token = tokens.issue("alice").value();
+        assertEquals("alice", tokens.verify(token));
+
+        clock.instant = now.plus(Duration.ofMinutes(6));
+        assertNull(tokens.verify(token));
+    }
+
+    @Test
+    void passwordHashesAreSaltedAndVerifiable() {
+        PasswordHasher hasher = new PasswordHasher();
+        String a = hasher.hash("pw123");
+        String b = hasher.hash("pw123");
+
+        assertNotEquals(a, b);
+        assertTrue(hasher.matches("pw123", a));
+        assertFalse(hasher.matches("pw124", a));
+        assertTrue(hasher.matches("legacy", "legacy"));
+    }
+
+    private static class MutableClock extends Clock {
+        Instant instant;
+
+        MutableClock(Instant instant) { this.instant = instant; }
+
+        @Override public ZoneOffset getZone() { return ZoneOffset.UTC; }
+        @Override public Clock withZone(java.time.ZoneId zone) { return this; }
+        @Override public Instant instant() { return instant; }
+    }
+}
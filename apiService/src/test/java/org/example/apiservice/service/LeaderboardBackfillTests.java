@@ -0,0 +1,61 @@
+package org.example.apiservice.service;
+
+import org.example.apiservice.EmbeddedRedisTests;
+import org.example.apiservice.model.User;
+import org.example.apiservice.repo.LegacyUserMigration;
+import org.example.apiservice.repo.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// the context is bound to this class's embedded Redis, which is stopped after the class
+@SpringBootTest
+@DirtiesContext
+class LeaderboardBackfillTests extends EmbeddedRedisTests {
+    // more than one SCAN batch
+    private static final int USERS = 1_203;
+
+    @Autowired
+    RedisShards shards;
+    @Autowired
+    UserRepository repo;
+    @Autowired
+    LeaderboardIndex index;
+    @Autowired
+    LegacyUserMigration migration;
+    @Autowired
+    StringRedisTemplate redis;
+
+    @Test
+    void indexesEveryUserCreatedBeforeTheIndexExisted() {
+        // accounts written straight to their records, as before the sorted set was kept
+        for (int i = 0; i < USERS; i++) {
+            User user = new User("old" + i, "pw");
+            user.setHighScore(i % 250);
+            repo.save(user);
+        }
+        // and one still in the Spring Data layout, converted first
+        redis.opsForHash().putAll("User:ancient", Map.of("password", "pw", "highScore", "999"));
+        redis.opsForSet().add("User", "ancient");
+        assertEquals(1, migration.migrateAll());
+        assertEquals(0, redis.opsForZSet().zCard(LeaderboardIndex.KEY));
+
+        new LeaderboardBackfill(shards, repo, index).run(null);
+
+        assertEquals(USERS + 1, redis.opsForZSet().zCard(LeaderboardIndex.KEY));
+        assertEquals(999, redis.opsForZSet().score(LeaderboardIndex.KEY, "ancient"));
+        assertEquals(249, redis.opsForZSet().score(LeaderboardIndex.KEY, "old249"));
+        assertEquals(0, redis.opsForZSet().score(LeaderboardIndex.KEY, "old1000"));
+        assertEquals("ancient", index.top(LeaderboardIndex.KEY, 0, 1).get(0).username);
+
+        // running it again changes nothing
+        new LeaderboardBackfill(shards, repo, index).run(null);
+        assertEquals(USERS + 1, redis.opsForZSet().zCard(LeaderboardIndex.KEY));
+    }
+}
@@ -0,0 +1,86 @@
+package org.example.apiservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.apiservice.dto.LeaderboardEntry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LeaderboardCacheTests {
+    private static final String ALL = LeaderboardIndex.KEY;
+
+    private final List<LeaderboardEntry> top3 = List.of(
+            new LeaderboardEntry("dave", 38),
+            new LeaderboardEntry("carol", 31),
+            new LeaderboardEntry("bob", 24));
+
+    @Test
+    void scoreBelowTopKKeepsCachedPage() {
+        LeaderboardCache cache = new LeaderboardCache(new SimpleMeterRegistry());
+        AtomicInteger loads = new AtomicInteger();
+        cache.get(ALL, 0, 3, () -> { loads.incrementAndGet(); return top3; });
+
+        cache.onScore(ALL, "alice", 20);
+        LeaderboardCache.Page page = cache.get(ALL, 0, 3, () -> { loads.incrementAndGet(); return top3; });
+
+        assertEquals(1, loads.get());
+        assertEquals(3, page.entries().size());
+    }
+
+    @Test
+    void scoreEnteringTopKInvalidatesPage() {
+        LeaderboardCache cache = new LeaderboardCache(new SimpleMeterRegistry());
+        AtomicInteger loads = new AtomicInteger();
+        String etag = cache.get(ALL, 0, 3, () -> { loads.incrementAndGet(); return top3; }).etag();
+
+        cache.onScore(ALL, "alice", 30);
+        List<LeaderboardEntry> updated = List.of(top3.get(0), top3.get(1), new LeaderboardEntry("alice", 30));
+        LeaderboardCache.Page page = cache.get(ALL, 0, 3, () -> { loads.incrementAndGet(); return updated; });
+
+        assertEquals(2, loads.get());
+        assertNotEquals(etag, page.etag());
+    }
+
+    @Test
+    void loadRacingWithAffectingWriteIsNotCached() {
+        LeaderboardCache cache = new LeaderboardCache(new SimpleMeterRegistry());
+        AtomicInteger loads = new AtomicInteger();
+        cache.get(ALL, 0, 3, () -> {
+            loads.incrementAndGet();
+            cache.onScore(ALL, "alice", 99);
+            return top3;
+        });
+
+        cache.get(ALL, 0, 3, () -> { loads.incrementAndGet(); return top3; });
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void scoreOnAnotherBoardKeepsCachedPage() {
+        LeaderboardCache cache = new LeaderboardCache(new SimpleMeterRegistry());
+        AtomicInteger loads = new AtomicInteger();
+        cache.get(ALL, 0, 3, () -> { loads.incrementAndGet(); return top3; });
+
+        // a daily best that is not a new all-time high score
+        cache.onSubmit("alice", 99, Instant.parse("2026-10-18T12:00:00Z"), false);
+        cache.get(ALL, 0, 3, () -> { loads.incrementAndGet(); return top3; });
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void hitsAndMissesAreCounted() {
+        SimpleMeterRegistry meters = new SimpleMeterRegistry();
+        LeaderboardCache cache = new LeaderboardCache(meters);
+        cache.get(ALL, 0, 3, () -> top3);
+        cache.get(ALL, 0, 3, () -> top3);
+        cache.get(ALL, 0, 3, () -> top3);
+
+        assertEquals(2, meters.counter("leaderboard.cache.requests", "result", "hit").count());
+        assertEquals(1, meters.counter("leaderboard.cache.requests", "result", "miss").count());
+    }
+}
@@ -0,0 +1,203 @@
+package org.example.apiservice.service;
+
+import org.example.apiservice.EmbeddedRedisTests;
+import org.example.apiservice.dto.LeaderboardDiff;
+import org.example.apiservice.dto.LeaderboardEntry;
+import org.example.apiservice.model.User;
+import org.example.apiservice.repo.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// the context is bound to this class's embedded Redis, which is stopped after the class
+@SpringBootTest
+@DirtiesContext
+class LeaderboardFeedTests extends EmbeddedRedisTests {
+    @Autowired
+    LeaderboardFeed feed;
+    @Autowired
+    ScoreWriter scoreWriter;
+    @Autowired
+    UserRepository repo;
+
+    @Test
+    void onlyChangedPositionsAreSent() {
+        List<LeaderboardEntry> before = List.of(new LeaderboardEntry("a", 9), new LeaderboardEntry("b", 5),
+                new LeaderboardEntry("c", 3));
+        List<LeaderboardEntry> after = List.of(new LeaderboardEntry("a", 9), new LeaderboardEntry("c", 6),
+                new LeaderboardEntry("b", 5));
+
+        List<LeaderboardDiff.Change> changes = LeaderboardFeed.diff(before, after);
+
+        assertEquals(List.of(2, 3), changes.stream().map(c -> c.rank).toList());
+        assertEquals("c", changes.get(0).username);
+        assertEquals(6, changes.get(0).highScore);
+    }
+
+    @Test
+    void subscriberMirrorFollowsScoreSubmissions() throws Exception {
+        for (String name : List.of("ann", "ben", "cid")) {
+            repo.save(new User(name, "secret"));
+        }
+        scoreWriter.submit("ann", 30);
+        scoreWriter.submit("ben", 20);
+
+        BlockingQueue<String> events = new LinkedBlockingQueue<>();
+        List<String> mirror = new ArrayList<>();
+        LeaderboardFeed.Subscription subscription = feed.subscribe(2, new LeaderboardFeed.Listener() {
+            @Override
+            public void send(String event, LeaderboardDiff diff) {
+                synchronized (mirror) {
+                    if (event.equals("snapshot")) mirror.clear();
+                    for (LeaderboardDiff.Change c : diff.changes) {
+                        while (mirror.size() < c.rank) mirror.add(null);
+                        mirror.set(c.rank - 1, c.username + "=" + c.highScore);
+                    }
+                    while (mirror.size() > diff.size) mirror.remove(mirror.size() - 1);
+                }
+                events.add(event);
+            }
+
+            @Override
+            public void heartbeat() {
+            }
+        }).orElseThrow();
+
+        assertEquals("snapshot", events.poll(5, TimeUnit.SECONDS));
+        // the snapshot may predate the two writes above; wait until the mirror has caught up
+        awaitMirror(mirror, List.of("ann=30", "ben=20"));
+
+        scoreWriter.submit("cid", 25);
+        awaitMirror(mirror, List.of("ann=30", "cid=25"));
+
+        // a change below the subscribed limit sends nothing
+        events.clear();
+        scoreWriter.submit("ben", 21);
+        Thread.sleep(1000);
+        assertTrue(events.isEmpty());
+        subscription.close();
+    }
+
+    @Test
+    void aSubscriberThatStopsReadingIsDroppedWithoutHoldingUpTheOthers() throws Exception {
+        CountDownLatch stalled = new CountDownLatch(1);
+        CountDownLatch dropped = new CountDownLatch(1);
+        LeaderboardFeed.Subscription slow = feed.subscribe(3, new LeaderboardFeed.Listener() {
+            @Override
+            public void send(String event, LeaderboardDiff diff) throws InterruptedException {
+                stalled.await();
+            }
+
+            @Override
+            public void heartbeat() throws InterruptedException {
+                stalled.await();
+            }
+
+            @Override
+            public void close() {
+                dropped.countDown();
+            }
+        }).orElseThrow();
+        AtomicInteger beats = new AtomicInteger();
+        LeaderboardFeed.Subscription fast = feed.subscribe(3, new LeaderboardFeed.Listener() {
+            @Override
+            public void send(String event, LeaderboardDiff diff) {
+            }
+
+            @Override
+            public void heartbeat() {
+                beats.incrementAndGet();
+            }
+        }).orElseThrow();
+
+        // the slow subscriber's first send never returns; the other one keeps up with every round regardless
+        int rounds = LeaderboardFeed.MAX_PENDING_EVENTS + 5;
+        for (int i = 1; i <= rounds; i++) {
+            feed.heartbeat();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (beats.get() < i && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            assertEquals(i, beats.get());
+        }
+        assertTrue(dropped.await(5, TimeUnit.SECONDS));
+        stalled.countDown();
+        slow.close();
+        fast.close();
+    }
+
+    @Test
+    void stoppingTheFeedEndsStreamsAndInterruptsSends() throws Exception {
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        CountDownLatch closed = new CountDownLatch(1);
+        feed.subscribe(3, new LeaderboardFeed.Listener() {
+            @Override
+            public void send(String event, LeaderboardDiff diff) {
+                sending.countDown();
+                try {
+                    new CountDownLatch(1).await();
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+            }
+
+            @Override
+            public void heartbeat() {
+            }
+
+            @Override
+            public void close() {
+                closed.countDown();
+            }
+        }).orElseThrow();
+        assertTrue(sending.await(5, TimeUnit.SECONDS));
+
+        feed.stop();
+        try {
+            assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+            assertTrue(closed.await(5, TimeUnit.SECONDS));
+        } finally {
+            feed.start();
+        }
+
+        // a restarted feed serves new subscribers
+        CountDownLatch snapshot = new CountDownLatch(1);
+        LeaderboardFeed.Subscription next = feed.subscribe(3, new LeaderboardFeed.Listener() {
+            @Override
+            public void send(String event, LeaderboardDiff diff) {
+                if (event.equals("snapshot")) snapshot.countDown();
+            }
+
+            @Override
+            public void heartbeat() {
+            }
+        }).orElseThrow();
+        assertTrue(snapshot.await(5, TimeUnit.SECONDS));
+        next.close();
+    }
+
+    private static void awaitMirror(List<String> mirror, List<String> expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            synchronized (mirror) {
+                if (mirror.equals(expected)) return;
+            }
+            Thread.sleep(20);
+        }
+        synchronized (mirror) {
+            assertEquals(expected, mirror);
+        }
+    }
+}
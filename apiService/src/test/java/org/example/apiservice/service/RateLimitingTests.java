@@ -0,0 +1,147 @@
+package org.example.apiservice.service;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitingTests {
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void burstThenRetryAfterUntilRefilled() {
+        AtomicLong clock = new AtomicLong();
+        RateLimiter limiter = new RateLimiter(3, 0.5, 20, 5, 10, clock::get);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.acquire(RateLimiter.Endpoint.LOGIN, "alice", "10.0.0.1"));
+        }
+        assertEquals(2, limiter.acquire(RateLimiter.Endpoint.LOGIN, "alice", "10.0.0.1"));
+        // other users and other endpoints have their own buckets
+        assertEquals(0, limiter.acquire(RateLimiter.Endpoint.LOGIN, "bob", "10.0.0.1"));
+        assertEquals(0, limiter.acquire(RateLimiter.Endpoint.SCORE, "alice", "10.0.0.1"));
+
+        clock.addAndGet(2 * SECOND);
+        assertEquals(0, limiter.acquire(RateLimiter.Endpoint.LOGIN, "alice", "10.0.0.2"));
+    }
+
+    @Test
+    void oneAddressCannotCycleThroughUsernames() {
+        AtomicLong clock = new AtomicLong();
+        RateLimiter limiter = new RateLimiter(1, 0.1, 20, 5, 10, clock::get);
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, limiter.acquire(RateLimiter.Endpoint.LOGIN, "user" + i, "10.0.0.1"));
+        }
+        assertTrue(limiter.acquire(RateLimiter.Endpoint.LOGIN, "user10", "10.0.0.1") > 0);
+    }
+
+    @Test
+    void aBatchCostsOneTokenPerItem() {
+        AtomicLong clock = new AtomicLong();
+        RateLimiter limiter = new RateLimiter(3, 0.5, 20, 5, 10, clock::get);
+
+        assertEquals(20, limiter.burst(RateLimiter.Endpoint.SCORE));
+        assertEquals(0, limiter.acquire(RateLimiter.Endpoint.SCORE, "alice", "10.0.0.1", 15));
+        // 5 left; 8 more take (8 - 5) / 5 per second
+        assertEquals(1, limiter.acquire(RateLimiter.Endpoint.SCORE, "alice", "10.0.0.1", 8));
+        assertEquals(0, limiter.acquire(RateLimiter.Endpoint.SCORE, "alice", "10.0.0.1", 5));
+        assertTrue(limiter.acquire(RateLimiter.Endpoint.SCORE, "alice", "10.0.0.1") > 0);
+    }
+
+    @Test
+    void submissionsQueuedBehindAWriteAreMergedIntoOne() throws Exception {
+        CountDownLatch firstWriteStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstWrite = new CountDownLatch(1);
+        List<Integer> written = new ArrayList<>();
+        List<Instant> writtenAt = new ArrayList<>();
+        ScoreWriter writer = new ScoreWriter(null) {
+            @Override
+            public Result submit(String username, int highScore, Instant at) {
+                synchronized (written) {
+                    written.add(highScore);
+                    writtenAt.add(at);
+                }
+                if (highScore == 1) {
+                    firstWriteStarted.countDown();
+                    try {
+                        releaseFirstWrite.await();
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+                return Result.UPDATED;
+            }
+        };
+        ScoreCoalescer coalescer = new ScoreCoalescer(writer);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        Instant now = Instant.now();
+
+        Future<ScoreCoalescer.Submitted> first = pool.submit(() -> coalescer.submit("spammer", 1, now));
+        firstWriteStarted.await();
+        List<Future<ScoreCoalescer.Submitted>> queued = new ArrayList<>();
+        for (int score : new int[]{7, 3, 5}) {
+            // submitted later than the in-flight write, in an order unrelated to the scores
+            queued.add(pool.submit(() -> coalescer.submit("spammer", score, now.plusSeconds(10 - score))));
+        }
+        // let the three submissions queue up behind the in-flight write
+        Thread.sleep(200);
+        releaseFirstWrite.countDown();
+
+        assertEquals(1, first.get(5, TimeUnit.SECONDS).score());
+        for (Future<ScoreCoalescer.Submitted> f : queued) {
+            assertEquals(7, f.get(5, TimeUnit.SECONDS).score());
+        }
+        pool.shutdown();
+        assertEquals(List.of(1, 7), written);
+        // the merged write carries the latest submission time
+        assertEquals(List.of(now, now.plusSeconds(7)), writtenAt);
+    }
+
+    @Test
+    void reactiveSubmissionsQueuedBehindAWriteAreMergedIntoOne() {
+        Sinks.One<ScoreWriter.Result> firstWrite = Sinks.one();
+        List<Integer> written = new CopyOnWriteArrayList<>();
+        List<Instant> writtenAt = new CopyOnWriteArrayList<>();
+        ReactiveUserStore store = new ReactiveUserStore(null, null) {
+            @Override
+            public Mono<ScoreWriter.Result> submit(String username, int highScore, Instant at) {
+                written.add(highScore);
+                writtenAt.add(at);
+                return highScore == 1 ? firstWrite.asMono() : Mono.just(ScoreWriter.Result.UPDATED);
+            }
+        };
+        ReactiveScoreCoalescer coalescer = new ReactiveScoreCoalescer(store);
+        Instant now = Instant.now();
+
+        CompletableFuture<ScoreCoalescer.Submitted> first = coalescer.submit("spammer", 1, now).toFuture();
+        List<CompletableFuture<ScoreCoalescer.Submitted>> queued = new ArrayList<>();
+        for (int score : new int[]{7, 3, 5}) {
+            queued.add(coalescer.submit("spammer", score, now.plusSeconds(10 - score)).toFuture());
+        }
+        // one queued caller gives up; the merged write still happens for the others
+        coalescer.submit("spammer", 9, now.plusSeconds(1)).subscribe().dispose();
+        assertEquals(List.of(1), written);
+        firstWrite.tryEmitValue(ScoreWriter.Result.UPDATED);
+
+        assertEquals(1, first.join().score());
+        for (CompletableFuture<ScoreCoalescer.Submitted> f : queued) {
+            assertEquals(9, f.join().score());
+        }
+        assertEquals(List.of(1, 9), written);
+        assertEquals(List.of(now, now.plusSeconds(7)), writtenAt);
+    }
+}
@@ -0,0 +1,61 @@
+package org.example.apiservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.apiservice.dto.ScoreRequest;
+import org.example.gameengine.Autopilot;
+import org.example.gameengine.FlappyEngine;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplayVerifierTests {
+    private final ReplayVerifier verifier = new ReplayVerifier(true, new SimpleMeterRegistry());
+
+    @Test
+    void onlyTheScoreTheReplayReachesIsAccepted() {
+        Autopilot.Run run = Autopilot.play(42, 30);
+        assertEquals(30, run.score());
+
+        assertTrue(verifier.accepts(request(30, run.seed(), run.jumps())));
+        assertFalse(verifier.accepts(request(31, run.seed(), run.jumps())));
+        assertFalse(verifier.accepts(request(30, run.seed() + 1, run.jumps())));
+        assertFalse(verifier.accepts(request(30, 0, null)));
+        assertTrue(new ReplayVerifier(false, new SimpleMeterRegistry()).accepts(request(30, 0, null)));
+    }
+
+    @Test
+    void malformedInputLogsAreInvalid() {
+        Autopilot.Run run = Autopilot.play(9, 5);
+        FlappyEngine engine = new FlappyEngine();
+        int[] jumps = run.jumps();
+        assertEquals(5, engine.replay(run.seed(), jumps, jumps.length));
+
+        // a jump after the bird died
+        int[] late = Arrays.copyOf(jumps, jumps.length + 1);
+        late[jumps.length] = jumps[jumps.length - 1] + 10_000;
+        assertEquals(FlappyEngine.INVALID, engine.replay(run.seed(), late, late.length));
+
+        // out of order
+        int[] swapped = jumps.clone();
+        swapped[1] = jumps[0] - 1;
+        assertEquals(FlappyEngine.INVALID, engine.replay(run.seed(), swapped, swapped.length));
+
+        // a bird still flying after MAX_TICKS
+        Autopilot.Run endless = Autopilot.play(1, Integer.MAX_VALUE);
+        assertEquals(FlappyEngine.INVALID, engine.replay(endless.seed(), endless.jumps(), endless.jumps().length));
+    }
+
+    private static ScoreRequest request(int highScore, long seed, int[] jumps) {
+        ScoreRequest r = new ScoreRequest();
+        r.username = "replayer";
+        r.highScore = highScore;
+        if (jumps != null) {
+            r.replay = new ScoreRequest.Replay();
+            r.replay.seed = seed;
+            r.replay.jumps = jumps;
+        }
+        return r;
+    }
+}
@@ -0,0 +1,88 @@
+package org.example.apiservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.apiservice.dto.ScoreRequest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScoreBufferTests {
+    private static final Instant NOW = Instant.parse("2026-10-18T12:00:00Z");
+
+    @TempDir
+    Path dir;
+
+    private final List<String> written = new ArrayList<>();
+    private boolean redisDown;
+
+    private final ScoreWriter writer = new ScoreWriter(null) {
+        @Override
+        public List<Result> submitAll(List<ScoreRequest> requests, List<Instant> at) {
+            if (redisDown) throw new IllegalStateException("connection refused");
+            List<Result> results = new ArrayList<>();
+            for (int i = 0; i < requests.size(); i++) {
+                written.add(requests.get(i).username + "=" + requests.get(i).highScore + "@" + at.get(i));
+                results.add(Result.UPDATED);
+            }
+            return results;
+        }
+    };
+
+    private ScoreBuffer open() throws IOException {
+        return new ScoreBuffer(writer, new LeaderboardCache(new SimpleMeterRegistry()), new SimpleMeterRegistry(),
+                dir.toString(), Duration.ofMillis(100));
+    }
+
+    @Test
+    void flushWritesEachUsersBestScoreOnce() throws IOException {
+        ScoreBuffer buffer = open();
+        buffer.submit("alice", 5, NOW);
+        buffer.submit("alice", 9, NOW.plusSeconds(1));
+        buffer.submit("alice", 7, NOW.plusSeconds(2));
+        buffer.submit("bob", 3, NOW);
+
+        assertTrue(buffer.flush());
+        assertEquals(2, written.size());
+        assertTrue(written.contains("alice=9@" + NOW.plusSeconds(1)));
+        assertEquals(0, buffer.size());
+        buffer.destroy();
+
+        // nothing is left to replay
+        written.clear();
+        assertTrue(open().flush());
+        assertTrue(written.isEmpty());
+    }
+
+    @Test
+    void restartReplaysScoresThatWereNeverFlushed() throws IOException {
+        ScoreBuffer crashed = open();
+        crashed.submit("alice", 12, NOW);
+        crashed.submit("bob", 4, NOW);
+        redisDown = true;
+        assertFalse(crashed.flush());
+        crashed.submit("alice", 15, NOW.plusSeconds(1));
+        // the process dies mid-line: a torn record is ignored
+        Path last;
+        try (var files = Files.list(dir)) {
+            last = files.sorted().reduce((a, b) -> b).orElseThrow();
+        }
+        Files.writeString(last, "1792324800 999 ali", StandardCharsets.US_ASCII, StandardOpenOption.APPEND);
+
+        redisDown = false;
+        ScoreBuffer restarted = open();
+        assertEquals(2, restarted.size());
+        assertTrue(restarted.flush());
+        assertEquals(List.of("alice=15@" + NOW.plusSeconds(1), "bob=4@" + NOW), written.stream().sorted().toList());
+    }
+}
@@ -0,0 +1,120 @@
+package org.example.apiservice.service;
+
+import org.example.apiservice.EmbeddedRedisTests;
+import org.example.apiservice.dto.ScoreRequest;
+import org.example.apiservice.model.User;
+import org.example.apiservice.repo.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest
+class ScoreWriterTests extends EmbeddedRedisTests {
+    @Autowired
+    ScoreWriter scoreWriter;
+    @Autowired
+    UserRepository repo;
+    @Autowired
+    StringRedisTemplate redis;
+
+    @Test
+    void concurrentSubmissionsNeverLoseTheHighestScore() throws Exception {
+        repo.save(new User("racer", "secret"));
+
+        List<Integer> scores = new ArrayList<>(IntStream.rangeClosed(1, 2000).boxed().toList());
+        Collections.shuffle(scores);
+
+        ExecutorService pool = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<ScoreWriter.Result>> results = new ArrayList<>();
+        for (int score : scores) {
+            results.add(pool.submit(() -> {
+                start.await();
+                return scoreWriter.submit("racer", score);
+            }));
+        }
+        start.countDown();
+        for (Future<ScoreWriter.Result> r : results) r.get();
+        pool.shutdown();
+
+        assertEquals(2000, repo.findByUsername("racer").orElseThrow().getHighScore());
+        assertEquals(2000.0, redis.opsForZSet().score(LeaderboardIndex.KEY, "racer"));
+    }
+
+    @Test
+    void unknownUserIsNotCreated() {
+        assertEquals(ScoreWriter.Result.UNKNOWN_USER, scoreWriter.submit("ghost", 10));
+        assertEquals(false, repo.exists("ghost"));
+        assertNull(redis.opsForZSet().score(LeaderboardIndex.KEY, "ghost"));
+    }
+
+    @Test
+    void windowedBoardsKeepThePeriodBest() {
+        repo.save(new User("weekly", "secret"));
+        Instant monday = Instant.parse("2099-10-12T08:00:00Z");
+        Instant tuesday = Instant.parse("2099-10-13T08:00:00Z");
+        scoreWriter.submit("weekly", 50, monday);
+
+        // below the all-time high score, but the best of the day
+        assertEquals(ScoreWriter.Result.UNCHANGED, scoreWriter.submit("weekly", 20, tuesday));
+        scoreWriter.submit("weekly", 10, tuesday);
+
+        String day = LeaderboardWindow.DAY.key(tuesday);
+        String week = LeaderboardWindow.WEEK.key(tuesday);
+        assertEquals("leaderboard:week:2099-W42", week);
+        assertEquals(20.0, redis.opsForZSet().score(day, "weekly"));
+        assertEquals(50.0, redis.opsForZSet().score(week, "weekly"));
+        assertEquals(50, repo.findByUsername("weekly").orElseThrow().getHighScore());
+        assertEquals(Instant.parse("2099-10-14T00:00:00Z").getEpochSecond(), expiresAt(day), 5);
+        assertEquals(Instant.parse("2099-10-19T00:00:00Z").getEpochSecond(), expiresAt(week), 5);
+    }
+
+    @Test
+    void submitAllReportsEachItemInOrder() {
+        repo.save(new User("batcher", "secret"));
+
+        List<ScoreWriter.Result> results = scoreWriter.submitAll(List.of(
+                score("batcher", 40), score("batcher", 10), score("nobody", 5), score("batcher", 41)));
+
+        assertEquals(List.of(ScoreWriter.Result.UPDATED, ScoreWriter.Result.UNCHANGED,
+                ScoreWriter.Result.UNKNOWN_USER, ScoreWriter.Result.UPDATED), results);
+        assertEquals(41, repo.findByUsername("batcher").orElseThrow().getHighScore());
+    }
+
+    @Test
+    void submitAllSurvivesScriptCacheFlush() {
+        repo.save(new User("flushed", "secret"));
+        redis.execute((RedisCallback<Object>) connection -> {
+            connection.scriptingCommands().scriptFlush();
+            return null;
+        });
+
+        assertEquals(List.of(ScoreWriter.Result.UPDATED), scoreWriter.submitAll(List.of(score("flushed", 7))));
+    }
+
+    private double expiresAt(String key) {
+        return Instant.now().getEpochSecond() + redis.getExpire(key);
+    }
+
+    private static ScoreRequest score(String username, int highScore) {
+        ScoreRequest r = new ScoreRequest();
+        r.username = username;
+        r.highScore = highScore;
+        return r;
+    }
+}
@@ -0,0 +1,77 @@
+package org.example.apiservice.service;
+
+import org.example.apiservice.EmbeddedRedisTests;
+import org.example.apiservice.dto.LeaderboardEntry;
+import org.example.apiservice.dto.ScoreRequest;
+import org.example.apiservice.dto.UserRank;
+import org.example.apiservice.model.User;
+import org.example.apiservice.repo.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// the context is bound to this class's embedded Redis, which is stopped after the class
+@SpringBootTest
+@DirtiesContext
+@EmbeddedRedisTests.ExtraShards(ShardedLeaderboardTests.SHARDS - 1)
+class ShardedLeaderboardTests extends EmbeddedRedisTests {
+    static final int SHARDS = 3;
+    private static final int USERS = 300;
+
+    @Autowired
+    RedisShards shards;
+    @Autowired
+    UserRepository repo;
+    @Autowired
+    ScoreWriter writer;
+    @Autowired
+    LeaderboardIndex index;
+
+    @Test
+    void scatterGatherMatchesOneGlobalLeaderboard() {
+        List<ScoreRequest> scores = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            assertTrue(repo.create(new User("p" + i, "pw")));
+            index.record("p" + i, 0);
+            ScoreRequest r = new ScoreRequest();
+            r.username = "p" + i;
+            // plenty of ties, several of them across shards
+            r.highScore = (i * 37) % 101;
+            scores.add(r);
+        }
+        List<ScoreWriter.Result> results = writer.submitAll(scores, Instant.now());
+        assertTrue(results.stream().allMatch(r -> r == ScoreWriter.Result.UPDATED || r == ScoreWriter.Result.UNCHANGED));
+
+        // every shard holds some of the accounts, and each account only its own shard
+        for (int s = 0; s < SHARDS; s++) {
+            int shard = s;
+            long mine = scores.stream().filter(r -> shards.indexOf(r.username) == shard).count();
+            assertTrue(mine > USERS / 10, "shard " + s + " holds " + mine);
+            assertEquals(mine, shards.all().get(s).opsForZSet().zCard(LeaderboardIndex.KEY));
+        }
+
+        List<LeaderboardEntry> all = index.top(LeaderboardIndex.KEY, 0, USERS);
+        assertEquals(USERS, all.size());
+        List<Integer> expected = scores.stream().map(r -> r.highScore).sorted(Comparator.reverseOrder()).toList();
+        assertEquals(expected, all.stream().map(e -> e.highScore).toList());
+
+        // pages of the merge line up with the whole list, and rank() with the positions in it
+        assertEquals(all.subList(40, 50).stream().map(e -> e.username).toList(),
+                index.top(LeaderboardIndex.KEY, 40, 10).stream().map(e -> e.username).toList());
+        for (int position = 0; position < USERS; position += 7) {
+            UserRank rank = index.rank(all.get(position).username).orElseThrow();
+            assertEquals(position + 1, rank.rank, all.get(position).username);
+            assertEquals(USERS, rank.totalPlayers);
+        }
+        assertEquals(100, repo.findByUsername(all.get(0).username).orElseThrow().getHighScore());
+        assertEquals(USERS, repo.findAllByUsername(scores.stream().map(r -> r.username).toList()).size());
+    }
+}
@@ -0,0 +1,93 @@
+package org.example.apiservice.service;
+
+import org.example.apiservice.ApiServiceApplication;
+import org.example.apiservice.EmbeddedRedisTests;
+import org.example.apiservice.dto.LeaderboardEntry;
+import org.example.apiservice.model.User;
+import org.example.apiservice.repo.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// two application instances on one Redis, as behind a load balancer; only Redis pub/sub connects them
+class TwoInstanceLeaderboardTests extends EmbeddedRedisTests {
+    private ConfigurableApplicationContext first;
+    private ConfigurableApplicationContext second;
+
+    @BeforeEach
+    void startInstances() {
+        first = start();
+        second = start();
+    }
+
+    @AfterEach
+    void stopInstances() {
+        second.close();
+        first.close();
+    }
+
+    private static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(ApiServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.data.redis.port=" + redisPort());
+    }
+
+    @Test
+    void dailyPageCachedOnOneInstanceIsDroppedByAWriteOnTheOther() throws InterruptedException {
+        Instant now = Instant.now();
+        String day = LeaderboardWindow.DAY.key(now);
+        UserRepository repo = first.getBean(UserRepository.class);
+        repo.save(new User("veteran", "pw"));
+        ScoreWriter writer = second.getBean(ScoreWriter.class);
+        // an all-time high score from last week, so today's lower score only changes the daily board
+        writer.submit("veteran", 90, now.minus(Duration.ofDays(8)));
+
+        LeaderboardIndex index = first.getBean(LeaderboardIndex.class);
+        LeaderboardCache cache = first.getBean(LeaderboardCache.class);
+        assertEquals(List.of(), cache.get(day, 0, 10, () -> index.top(day, 0, 10)).entries());
+
+        assertEquals(ScoreWriter.Result.UNCHANGED, writer.submit("veteran", 40, now));
+
+        List<LeaderboardEntry> page = List.of();
+        for (int i = 0; i < 100 && page.isEmpty(); i++) {
+            Thread.sleep(20);
+            page = cache.get(day, 0, 10, () -> index.top(day, 0, 10)).entries();
+        }
+        assertEquals(1, page.size());
+        assertEquals("veteran", page.get(0).username);
+        assertEquals(40, page.get(0).highScore);
+    }
+
+    @Test
+    void aPlayerRegisteredOnOneInstanceAppearsOnTheOther() throws InterruptedException {
+        LeaderboardIndex index = first.getBean(LeaderboardIndex.class);
+        LeaderboardCache cache = first.getBean(LeaderboardCache.class);
+        String board = LeaderboardIndex.KEY;
+        List<String> before = names(cache.get(board, 0, 100, () -> index.top(board, 0, 100)).entries());
+        assertFalse(before.contains("newcomer"));
+
+        // what /register does after creating the account
+        assertTrue(second.getBean(UserRepository.class).create(new User("newcomer", "pw")));
+        second.getBean(LeaderboardIndex.class).record("newcomer", 0);
+
+        List<String> page = before;
+        for (int i = 0; i < 100 && !page.contains("newcomer"); i++) {
+            Thread.sleep(20);
+            page = names(cache.get(board, 0, 100, () -> index.top(board, 0, 100)).entries());
+        }
+        assertTrue(page.contains("newcomer"), page.toString());
+    }
+
+    private static List<String> names(List<LeaderboardEntry> entries) {
+        return entries.stream().map(e -> e.username).toList();
+    }
+}
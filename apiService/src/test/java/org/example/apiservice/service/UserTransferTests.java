@@ -0,0 +1,130 @@
+package org.example.apiservice.service;
+
+import org.example.apiservice.EmbeddedRedisTests;
+import org.example.apiservice.model.User;
+import org.example.apiservice.repo.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// the context is bound to this class's embedded Redis, which is stopped after the class
+@SpringBootTest
+@DirtiesContext
+class UserTransferTests extends EmbeddedRedisTests {
+    private static final int USERS = 2500;
+
+    @Autowired
+    UserTransfer transfer;
+    @Autowired
+    UserRepository repo;
+    @Autowired
+    LeaderboardIndex index;
+    @Autowired
+    StringRedisTemplate redis;
+
+    @Test
+    void exportThenImportRestoresAccountsAndLeaderboard() throws Exception {
+        for (UserTransfer.Format format : UserTransfer.Format.values()) {
+            seed();
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            assertEquals(USERS, transfer.export(out, format).written());
+            if (format == UserTransfer.Format.NDJSON) {
+                assertTrue(out.toString(StandardCharsets.UTF_8).lines().allMatch(l -> l.startsWith("{\"username\":\"player")));
+            }
+
+            flush();
+            UserTransfer.Summary imported = transfer.importFrom(new ByteArrayInputStream(out.toByteArray()), format, false);
+            assertEquals(USERS, imported.written());
+            assertEquals(7 * 42, repo.findByUsername("player42").orElseThrow().getHighScore());
+            assertEquals("pw42", repo.findByUsername("player42").orElseThrow().getPassword());
+            assertEquals(USERS, index.rank("player0").orElseThrow().totalPlayers);
+
+            // a second import keeps what is there
+            assertEquals(USERS, transfer.importFrom(new ByteArrayInputStream(out.toByteArray()), format, false).skipped());
+            flush();
+        }
+    }
+
+    @Test
+    void theRunnerTransfersTheFilesAndReturns(@TempDir Path dir) throws Exception {
+        seed();
+        Path file = dir.resolve("users.bin");
+        new UserTransferRunner(transfer, new MockEnvironment()
+                .withProperty("users.export", file.toString())
+                .withProperty("users.format", "binary")).run(null);
+        assertTrue(Files.size(file) > 0);
+
+        flush();
+        new UserTransferRunner(transfer, new MockEnvironment()
+                .withProperty("users.import", file.toString())
+                .withProperty("users.format", "binary")).run(null);
+        assertEquals(USERS, index.rank("player0").orElseThrow().totalPlayers);
+        flush();
+    }
+
+    @Test
+    void aBinaryRecordLengthOutOfRangeIsRejectedBeforeAllocating() throws Exception {
+        for (int length : new int[]{-1, 0, Integer.MAX_VALUE}) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream data = new DataOutputStream(bytes);
+            data.writeBytes("FBU1");
+            data.writeUTF("p1");
+            data.writeInt(length);
+            IOException e = assertThrows(IOException.class, () -> transfer.importFrom(
+                    new ByteArrayInputStream(bytes.toByteArray()), UserTransfer.Format.BINARY, false));
+            assertTrue(e.getMessage().contains(length + " bytes"), e.getMessage());
+        }
+    }
+
+    @Test
+    void invalidNdjsonRowsAreSkippedNotImported() throws Exception {
+        String rows = """
+                {"username":"ann01","password":"pw","highScore":5,"lastUpdate":"2026-10-18T10:00:00Z"}
+                {"password":"pw","highScore":5,"lastUpdate":"2026-10-18T10:00:00Z"}
+                {"username":"bob01","highScore":5,"lastUpdate":"2026-10-18T10:00:00Z"}
+                {"username":"cid01","password":"pw","lastUpdate":"2026-10-18T10:00:00Z"}
+                {"username":"dan01","password":"pw","highScore":5}
+                {"username":"no spaces","password":"pw","highScore":5,"lastUpdate":"2026-10-18T10:00:00Z"}
+                {"username":"eve01","password":"pw","highScore":-1,"lastUpdate":"2026-10-18T10:00:00Z"}
+                {"username":"fay01","password":"pw","highScore":7,"lastUpdate":"2026-10-18T10:00:00Z"}
+                """;
+        UserTransfer.Summary imported = transfer.importFrom(
+                new ByteArrayInputStream(rows.getBytes(StandardCharsets.UTF_8)), UserTransfer.Format.NDJSON, false);
+        assertEquals(2, imported.written());
+        assertEquals(6, imported.skipped());
+        assertEquals(7, repo.findByUsername("fay01").orElseThrow().getHighScore());
+        assertEquals(2, index.rank("ann01").orElseThrow().totalPlayers);
+        assertFalse(redis.hasKey("u:null"));
+        flush();
+    }
+
+    private void seed() {
+        for (int i = 0; i < USERS; i++) {
+            User u = new User("player" + i, "pw" + i);
+            u.setHighScore(7 * i);
+            repo.save(u);
+        }
+    }
+
+    private void flush() {
+        redis.execute((RedisCallback<Object>) c -> {
+            c.serverCommands().flushDb();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,75 @@
+package org.example.benchmarks;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import org.example.gameclient.ClientJson;
+import org.example.gameclient.LeaderboardEntry;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/*
+Decoding a /leaderboard response in the game client, starting from the bytes the HttpClient received:
+"mapsTwice" is what getLeaderboard() used to do (body as a String, parsed into List<Map<String, Object>>
+twice, once only to print it), "maps" the same parsed once, "typedFromString" the ClientJson decoder on
+a String body and "typedFromBytes" the decoder on the bytes, as ClientJson.json() does.
+Run with -prof gc for the bytes allocated per call (gc.alloc.rate.norm); 3 entries is what the game
+asks for, 100 the largest page. Measured: 8,344 -> 3,240 B for 3 entries (most of the rest is
+JsonReader's own buffer) and 88,320 -> 21,744 B for 100.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClientJsonBenchmark {
+    private static final Type MAPS = new TypeToken<List<Map<String, Object>>>() {}.getType();
+
+    @Param({"3", "100"})
+    int entries;
+
+    private final Gson gson = new Gson();
+    private byte[] body;
+
+    @Setup
+    public void setUp() {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < entries; i++) {
+            if (i > 0) json.append(',');
+            json.append("{\"username\":\"").append(RedisFixture.player(i))
+                    .append("\",\"highScore\":").append(RedisFixture.MAX_SCORE - i).append('}');
+        }
+        body = json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+        List<LeaderboardEntry> decoded = ClientJson.decode(ClientJson.LEADERBOARD, body);
+        if (decoded.size() != entries || !decoded.get(0).username().equals(RedisFixture.player(0))) {
+            throw new IllegalStateException("decoded " + decoded);
+        }
+    }
+
+    @Benchmark
+    public Object mapsTwice() {
+        String s = new String(body, StandardCharsets.UTF_8);
+        gson.fromJson(s, MAPS);
+        return gson.fromJson(s, MAPS);
+    }
+
+    @Benchmark
+    public Object maps() {
+        return gson.fromJson(new String(body, StandardCharsets.UTF_8), MAPS);
+    }
+
+    @Benchmark
+    public List<LeaderboardEntry> typedFromString() {
+        return ClientJson.decode(ClientJson.LEADERBOARD, new String(body, StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public List<LeaderboardEntry> typedFromBytes() {
+        return ClientJson.decode(ClientJson.LEADERBOARD, body);
+    }
+}
@@ -0,0 +1,68 @@
+package org.example.benchmarks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.apiservice.dto.LeaderboardEntry;
+import org.example.apiservice.dto.ScoreRequest;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+Jackson (de)serialization of the DTOs in the directions the service actually uses them:
+ScoreRequest bodies are read, leaderboard pages are written. The mapper is configured like Spring Boot's.
+Payload size does not depend on the number of players, so this is parameterized by item count instead
+(100 = largest leaderboard page, 1000 = largest score batch).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonBenchmark {
+    private static final TypeReference<List<ScoreRequest>> SCORE_BATCH = new TypeReference<>() {};
+
+    @Param({"1", "100", "1000"})
+    int items;
+
+    private ObjectMapper mapper;
+    private byte[] scoreRequestJson;
+    private byte[] scoreBatchJson;
+    private List<LeaderboardEntry> page;
+
+    @Setup
+    public void setUp() throws IOException {
+        mapper = Jackson2ObjectMapperBuilder.json().build();
+        List<ScoreRequest> batch = new ArrayList<>(items);
+        page = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            ScoreRequest r = new ScoreRequest();
+            r.username = RedisFixture.player(i);
+            r.highScore = RedisFixture.MAX_SCORE - i;
+            batch.add(r);
+            page.add(new LeaderboardEntry(r.username, r.highScore));
+        }
+        scoreRequestJson = mapper.writeValueAsBytes(batch.get(0));
+        scoreBatchJson = mapper.writeValueAsBytes(batch);
+    }
+
+    @Benchmark
+    public ScoreRequest readScoreRequest() throws IOException {
+        return mapper.readValue(scoreRequestJson, ScoreRequest.class);
+    }
+
+    @Benchmark
+    public List<ScoreRequest> readScoreBatch() throws IOException {
+        return mapper.readValue(scoreBatchJson, SCORE_BATCH);
+    }
+
+    @Benchmark
+    public byte[] writeLeaderboardPage() throws IOException {
+        return mapper.writeValueAsBytes(page);
+    }
+}
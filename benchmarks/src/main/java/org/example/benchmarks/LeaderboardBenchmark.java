@@ -0,0 +1,70 @@
+package org.example.benchmarks;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.apiservice.dto.LeaderboardEntry;
+import org.example.apiservice.dto.UserRank;
+import org.example.apiservice.service.LeaderboardCache;
+import org.example.apiservice.service.LeaderboardIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/*
+Leaderboard reads: the top page, a page from the middle of the board, a single player's rank,
+and the top page when it is served from LeaderboardCache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LeaderboardBenchmark {
+    private static final int PAGE_SIZE = 10;
+
+    @Param({"1000", "100000", "1000000"})
+    int users;
+
+    private RedisFixture redis;
+    private LeaderboardIndex index;
+    private LeaderboardCache cache;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        redis = new RedisFixture();
+        redis.seed(users, 42);
+        index = new LeaderboardIndex(redis.shards());
+        cache = new LeaderboardCache(new SimpleMeterRegistry());
+        random = new SplittableRandom(7);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        redis.close();
+    }
+
+    @Benchmark
+    public List<LeaderboardEntry> topPage() {
+        return index.top(LeaderboardIndex.KEY, 0, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<LeaderboardEntry> middlePage() {
+        return index.top(LeaderboardIndex.KEY, users / 2, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public Optional<UserRank> rank() {
+        return index.rank(RedisFixture.player(random.nextInt(users)));
+    }
+
+    @Benchmark
+    public LeaderboardCache.Page cachedTopPage() {
+        return cache.get(LeaderboardIndex.KEY, 0, PAGE_SIZE, () -> index.top(LeaderboardIndex.KEY, 0, PAGE_SIZE));
+    }
+}
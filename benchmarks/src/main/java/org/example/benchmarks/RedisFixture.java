@@ -0,0 +1,94 @@
+package org.example.benchmarks;
+
+import io.lettuce.core.api.StatefulConnection;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.example.apiservice.model.User;
+import org.example.apiservice.model.UserCodec;
+import org.example.apiservice.service.LeaderboardIndex;
+import org.example.apiservice.service.RedisShards;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettucePoolingClientConfiguration;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/*
+Embedded redis-server on a free port, seeded with N players laid out exactly like the service stores them
+(u:<name> record, "leaderboard" sorted set), so benchmarks run offline against real Redis.
+ */
+final class RedisFixture implements AutoCloseable {
+    private static final int SEED_BATCH = 10_000;
+    static final int MAX_SCORE = 999_999;
+
+    private final RedisServer server;
+    private final LettuceConnectionFactory factory;
+    final StringRedisTemplate redis;
+
+    RedisFixture() {
+        try {
+            int port;
+            try (ServerSocket socket = new ServerSocket(0)) {
+                port = socket.getLocalPort();
+            }
+            server = new RedisServer(port);
+            server.start();
+            // pooled like the service (spring.data.redis.lettuce.pool), otherwise every pipeline opens a connection
+            GenericObjectPoolConfig<StatefulConnection<?, ?>> pool = new GenericObjectPoolConfig<>();
+            pool.setMaxTotal(64);
+            pool.setMaxIdle(64);
+            factory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", port),
+                    LettucePoolingClientConfiguration.builder().poolConfig(pool).build());
+            factory.afterPropertiesSet();
+            factory.start();
+            redis = new StringRedisTemplate(factory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** This one server as the service's only shard. */
+    RedisShards shards() {
+        return new RedisShards(List.of("fixture"), List.of(redis));
+    }
+
+    static String player(int i) {
+        return "player" + i;
+    }
+
+    void seed(int users, long randomSeed) {
+        SplittableRandom random = new SplittableRandom(randomSeed);
+        Instant now = Instant.now();
+        for (int from = 0; from < users; from += SEED_BATCH) {
+            int to = Math.min(users, from + SEED_BATCH);
+            int start = from;
+            redis.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection conn = (StringRedisConnection) connection;
+                for (int i = start; i < to; i++) {
+                    String name = player(i);
+                    User user = new User(name, "x");
+                    user.setHighScore(random.nextInt(MAX_SCORE + 1));
+                    user.setLastUpdate(now);
+                    conn.stringCommands().set(UserCodec.key(name).getBytes(StandardCharsets.UTF_8), UserCodec.encode(user));
+                    conn.zAdd(LeaderboardIndex.KEY, user.getHighScore(), name);
+                }
+                return null;
+            });
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        factory.destroy();
+        server.stop();
+    }
+}
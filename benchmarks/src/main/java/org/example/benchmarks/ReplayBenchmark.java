@@ -0,0 +1,56 @@
+package org.example.benchmarks;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.apiservice.dto.ScoreRequest;
+import org.example.apiservice.service.ReplayVerifier;
+import org.example.gameengine.Autopilot;
+import org.example.gameengine.FlappyEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+Server-side replay verification: replays per second on one thread for games of increasing length
+(a point is scored every 1.2 s, so 10 / 50 / 250 points are games of about 12 s, 1 min and 5 min).
+"engine" re-runs a game on one reused FlappyEngine; "verifier" is what /score does per request,
+including a fresh engine and the metrics.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReplayBenchmark {
+    @Param({"10", "50", "250"})
+    int score;
+
+    private final FlappyEngine engine = new FlappyEngine();
+    private ReplayVerifier verifier;
+    private ScoreRequest request;
+
+    @Setup
+    public void setUp() {
+        Autopilot.Run run = Autopilot.play(42, score);
+        if (run.score() != score) {
+            throw new IllegalStateException("autopilot reached " + run.score() + " instead of " + score);
+        }
+        verifier = new ReplayVerifier(true, new SimpleMeterRegistry());
+        request = new ScoreRequest();
+        request.username = RedisFixture.player(0);
+        request.highScore = score;
+        request.replay = new ScoreRequest.Replay();
+        request.replay.seed = run.seed();
+        request.replay.jumps = run.jumps();
+    }
+
+    @Benchmark
+    public int engine() {
+        return engine.replay(request.replay.seed, request.replay.jumps, request.replay.jumps.length);
+    }
+
+    @Benchmark
+    public boolean verifier() {
+        return verifier.accepts(request);
+    }
+}
@@ -0,0 +1,64 @@
+package org.example.benchmarks;
+
+import org.example.apiservice.dto.ScoreRequest;
+import org.example.apiservice.service.ScoreWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/*
+Score submission through the Lua script: one EVALSHA round trip per score versus one pipelined
+batch. Scores are random, so most submissions are UNCHANGED, like real traffic.
+Both report the time per submitted score.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScoreSubmitBenchmark {
+    private static final int BATCH_SIZE = 100;
+
+    @Param({"1000", "100000", "1000000"})
+    int users;
+
+    private RedisFixture redis;
+    private ScoreWriter writer;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        redis = new RedisFixture();
+        redis.seed(users, 42);
+        writer = new ScoreWriter(redis.shards());
+        random = new SplittableRandom(7);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        redis.close();
+    }
+
+    @Benchmark
+    public ScoreWriter.Result submit() {
+        return writer.submit(RedisFixture.player(random.nextInt(users)), random.nextInt(RedisFixture.MAX_SCORE + 1));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public List<ScoreWriter.Result> submitBatch() {
+        List<ScoreRequest> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            ScoreRequest r = new ScoreRequest();
+            r.username = RedisFixture.player(random.nextInt(users));
+            r.highScore = random.nextInt(RedisFixture.MAX_SCORE + 1);
+            batch.add(r);
+        }
+        return writer.submitAll(batch);
+    }
+}
@@ -0,0 +1,79 @@
+package org.example.benchmarks;
+
+import org.example.apiservice.model.User;
+import org.example.apiservice.model.UserCodec;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Properties;
+import java.util.SplittableRandom;
+
+/*
+Not a JMH benchmark: measures Redis memory per account for the Spring Data @RedisHash layout the service
+used to write ("User:<name>" hash + "User" id set) and for the UserCodec record ("u:<name>").
+Each layout is written into its own fresh redis-server and compared by used_memory; passwords are
+PBKDF2-shaped, so the numbers match real accounts. The leaderboard sorted set is the same in both, so it is left out.
+
+  java -cp target/benchmarks.jar org.example.benchmarks.UserMemoryFootprint 1000000
+ */
+public final class UserMemoryFootprint {
+    private static final int BATCH = 10_000;
+
+    public static void main(String[] args) throws Exception {
+        int users = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        long legacy = measure(users, true);
+        long compact = measure(users, false);
+        System.out.printf("%,d users%n", users);
+        System.out.printf("  legacy  @RedisHash : %,14d bytes  %6.1f bytes/user%n", legacy, (double) legacy / users);
+        System.out.printf("  compact UserCodec  : %,14d bytes  %6.1f bytes/user%n", compact, (double) compact / users);
+        System.out.printf("  saved              : %5.1f %%%n", 100.0 * (legacy - compact) / legacy);
+    }
+
+    private static long measure(int users, boolean legacy) throws Exception {
+        try (RedisFixture fixture = new RedisFixture()) {
+            long before = usedMemory(fixture);
+            SplittableRandom random = new SplittableRandom(42);
+            Base64.Encoder b64 = Base64.getEncoder().withoutPadding();
+            Instant now = Instant.now();
+            for (int from = 0; from < users; from += BATCH) {
+                int start = from;
+                int to = Math.min(users, from + BATCH);
+                fixture.redis.executePipelined((RedisCallback<Object>) connection -> {
+                    StringRedisConnection conn = (StringRedisConnection) connection;
+                    for (int i = start; i < to; i++) {
+                        String name = RedisFixture.player(i);
+                        byte[] salt = new byte[16];
+                        byte[] hash = new byte[32];
+                        random.nextBytes(salt);
+                        random.nextBytes(hash);
+                        User user = new User(name, "pbkdf2_sha256$310000$" + b64.encodeToString(salt) + "$" + b64.encodeToString(hash));
+                        user.setHighScore(random.nextInt(RedisFixture.MAX_SCORE + 1));
+                        user.setLastUpdate(now);
+                        if (legacy) {
+                            conn.hMSet("User:" + name, Map.of(
+                                    "_class", User.class.getName(),
+                                    "username", name,
+                                    "password", user.getPassword(),
+                                    "highScore", String.valueOf(user.getHighScore()),
+                                    "lastUpdate", now.toString()));
+                            conn.sAdd("User", name);
+                        } else {
+                            conn.stringCommands().set(UserCodec.key(name).getBytes(StandardCharsets.UTF_8), UserCodec.encode(user));
+                        }
+                    }
+                    return null;
+                });
+            }
+            return usedMemory(fixture) - before;
+        }
+    }
+
+    private static long usedMemory(RedisFixture fixture) {
+        Properties info = fixture.redis.execute((RedisCallback<Properties>) c -> c.serverCommands().info("memory"));
+        return Long.parseLong(info.getProperty("used_memory"));
+    }
+}
@@ -0,0 +1,7 @@
+module org.example.gameclient {
+    requires com.google.gson;
+    requires java.net.http;
+    requires java.logging;
+
+    exports org.example.gameclient;
+}
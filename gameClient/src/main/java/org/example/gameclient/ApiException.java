@@ -0,0 +1,20 @@
+package org.example.gameclient;
+
+import java.io.IOException;
+
+/*
+The server answered, but not with a 2xx; statusCode() tells a refusal (4xx) from a server that is
+struggling (429, 5xx), which callers such as ScoreQueue treat differently.
+ */
+public class ApiException extends IOException {
+    private final int statusCode;
+
+    public ApiException(String message, int statusCode) {
+        super(message);
+        this.statusCode = statusCode;
+    }
+
+    public int statusCode() {
+        return statusCode;
+    }
+}
@@ -0,0 +1,219 @@
+package org.example.gameclient;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/*
+Decoders for the API's responses, written against Gson's streaming JsonReader. A response is read once,
+straight into the typed DTOs. There is no Map<String, Object> tree in between, so no boxed Double per
+number. Unknown fields are skipped, so the server may add some. The decoders hold no state and are
+shared by every client and thread. The client only reads these types (requests are written from maps),
+so a decoder is a plain function of the reader rather than a Gson TypeAdapter.
+json() turns a decoder into a BodyHandler that decodes the response bytes as they are, without first
+copying them into a String (ClientJsonBenchmark compares the allocations).
+ */
+public final class ClientJson {
+    private ClientJson() {}
+
+    /** Reads one value of type T where {@code in} stands. */
+    @FunctionalInterface
+    public interface Decoder<T> {
+        T read(JsonReader in) throws IOException;
+    }
+
+    public static final Decoder<LeaderboardEntry> LEADERBOARD_ENTRY = in -> {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        String username = null;
+        int highScore = 0;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "username" -> username = nextString(in);
+                case "highScore" -> highScore = in.nextInt();
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return new LeaderboardEntry(username, highScore);
+    };
+
+    public static final Decoder<List<LeaderboardEntry>> LEADERBOARD = listOf(LEADERBOARD_ENTRY);
+
+    public static final Decoder<UserRank> USER_RANK = in -> {
+        String username = null;
+        int highScore = 0;
+        long rank = 0;
+        long totalPlayers = 0;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "username" -> username = nextString(in);
+                case "highScore" -> highScore = in.nextInt();
+                case "rank" -> rank = in.nextLong();
+                case "totalPlayers" -> totalPlayers = in.nextLong();
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return new UserRank(username, highScore, rank, totalPlayers);
+    };
+
+    private static final Decoder<List<LeaderboardMirror.Change>> CHANGES = listOf(in -> {
+        int rank = 0;
+        String username = null;
+        int highScore = 0;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "rank" -> rank = in.nextInt();
+                case "username" -> username = nextString(in);
+                case "highScore" -> highScore = in.nextInt();
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return new LeaderboardMirror.Change(rank, new LeaderboardEntry(username, highScore));
+    });
+
+    // the data of a leaderboard stream event, see LeaderboardMirror
+    static final Decoder<LeaderboardMirror.Diff> LEADERBOARD_DIFF = in -> {
+        List<LeaderboardMirror.Change> changes = List.of();
+        int size = 0;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "changes" -> changes = CHANGES.read(in);
+                case "size" -> size = in.nextInt();
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return new LeaderboardMirror.Diff(changes, size);
+    };
+
+    /**
+     * Decodes a 2xx response body with {@code decoder} as it arrives; any other status (and 204) gives a
+     * null body, to be handled by status code. A body that is not what the decoder expects fails the
+     * request with an UncheckedIOException.
+     */
+    public static <T> HttpResponse.BodyHandler<T> json(Decoder<T> decoder) {
+        return info -> info.statusCode() >= 200 && info.statusCode() < 300 && info.statusCode() != 204
+                ? HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.ofByteArray(), body -> decode(decoder, body))
+                : HttpResponse.BodySubscribers.replacing(null);
+    }
+
+    public static <T> T decode(Decoder<T> decoder, byte[] body) {
+        return decode(decoder, new Utf8Reader(body));
+    }
+
+    public static <T> T decode(Decoder<T> decoder, String body) {
+        return decode(decoder, new StringReader(body));
+    }
+
+    private static <T> T decode(Decoder<T> decoder, Reader body) {
+        try (JsonReader in = new JsonReader(body)) {
+            return decoder.read(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (IllegalStateException | NumberFormatException e) {
+            // JsonReader's answer to a token of the wrong type
+            throw new UncheckedIOException(new IOException("unexpected JSON: " + e.getMessage(), e));
+        }
+    }
+
+    private static <T> Decoder<List<T>> listOf(Decoder<T> element) {
+        return in -> {
+            List<T> list = new ArrayList<>();
+            in.beginArray();
+            while (in.hasNext()) {
+                list.add(element.read(in));
+            }
+            in.endArray();
+            // cached responses are handed to every caller
+            return Collections.unmodifiableList(list);
+        };
+    }
+
+    private static String nextString(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextString();
+    }
+
+    // UTF-8 straight from the response bytes into JsonReader's buffer. An InputStreamReader would
+    // allocate an 8 KB decoding buffer per call, more than a whole leaderboard response. Malformed input
+    // becomes U+FFFD, one per bad lead byte, as strict as the JDK's decoder about what is malformed.
+    static final class Utf8Reader extends Reader {
+        private final byte[] bytes;
+        private int pos;
+        // second half of a surrogate pair that did not fit into the last read
+        private char pendingLow;
+
+        Utf8Reader(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public int read(char[] buf, int off, int len) {
+            if (len == 0) return 0;
+            int n = 0;
+            if (pendingLow != 0) {
+                buf[off + n++] = pendingLow;
+                pendingLow = 0;
+            }
+            while (n < len && pos < bytes.length) {
+                int b = bytes[pos++] & 0xff;
+                int cp;
+                if (b < 0x80) {
+                    cp = b;
+                } else if (b >= 0xc0 && b < 0xe0) {
+                    cp = continuation(b & 0x1f, 1, 0x80);
+                } else if (b >= 0xe0 && b < 0xf0) {
+                    cp = continuation(b & 0x0f, 2, 0x800);
+                } else if (b >= 0xf0 && b < 0xf8) {
+                    cp = continuation(b & 0x07, 3, 0x10000);
+                } else {
+                    cp = 0xfffd;
+                }
+                if (cp < 0x10000) {
+                    buf[off + n++] = (char) cp;
+                } else {
+                    buf[off + n++] = Character.highSurrogate(cp);
+                    if (n < len) {
+                        buf[off + n++] = Character.lowSurrogate(cp);
+                    } else {
+                        pendingLow = Character.lowSurrogate(cp);
+                    }
+                }
+            }
+            return n == 0 ? -1 : n;
+        }
+
+        private int continuation(int cp, int count, int min) {
+            for (int i = 0; i < count; i++) {
+                if (pos == bytes.length || (bytes[pos] & 0xc0) != 0x80) return 0xfffd;
+                cp = (cp << 6) | (bytes[pos++] & 0x3f);
+            }
+            // overlong forms, UTF-16 surrogates and code points past U+10FFFF are not characters
+            return cp < min || (cp >= 0xd800 && cp < 0xe000) || cp > 0x10ffff ? 0xfffd : cp;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package org.example.gameclient;
+
+import com.google.gson.Gson;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.KeyManagementException;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public class HttpClientGame {
+    private static final Logger log = Logger.getLogger(HttpClientGame.class.getName());
+    // a request without a response after this long fails with java.net.http.HttpTimeoutException
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+
+    private final HttpClient client;
+    private final Gson gson = new Gson();
+    private final String baseUrl;
+
+    // bearer token from the last successful login/register, and whose it is
+    private volatile String token;
+    private volatile String username;
+    private final List<Consumer<String>> loginListeners = new CopyOnWriteArrayList<>();
+
+    // last leaderboard and its ETag, re-used when the server answers 304; replaced as a whole,
+    // since async responses complete on the client's threads
+    private record CachedLeaderboard(String etag, List<LeaderboardEntry> entries) {}
+
+    private volatile CachedLeaderboard cachedLeaderboard;
+
+    public HttpClientGame(String cfgPath) {
+        this(cfgPath, newClientBuilder().build());
+    }
+
+    /**
+     * Uses an existing HttpClient, so many sessions (e.g. simulated players) can share
+     * one connection pool instead of each starting its own client.
+     */
+    public HttpClientGame(String baseUrl, HttpClient client) {
+        this.baseUrl = baseUrl;
+        this.client = client;
+    }
+
+    /**
+     * Builder with the game's SSL settings; callers may add an executor, timeouts etc. before build().
+     */
+    public static HttpClient.Builder newClientBuilder() {
+        try {
+            // Get SSL context that trusts all certificates
+            SSLContext sslContext = SSLHelper.getTrustAllSSLContext();
+
+            // Disable hostname verification
+            SSLParameters sslParameters = new SSLParameters();
+            sslParameters.setEndpointIdentificationAlgorithm(null);
+
+            // HttpClient builder with disabled SSL checks; over TLS, HTTP/2 lets the requests of a
+            // session share one connection (and one handshake), with HTTP/1.1 as fallback
+            return HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_2)
+                    .sslContext(sslContext)
+                    .sslParameters(sslParameters);
+
+        } catch (NoSuchAlgorithmException | KeyManagementException e) {
+            throw new RuntimeException("Failed to create HttpClient with disabled SSL", e);
+        }
+    }
+
+    public boolean register(String username, String password) throws IOException {
+        var map = new HashMap<String, Object>();
+        map.put("username", username);
+        map.put("password", password);
+        String json = gson.toJson(map);
+        HttpRequest req = HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/register"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+
+        HttpResponse<String> r;
+
+        try {
+            r = client.send(req, HttpResponse.BodyHandlers.ofString());
+            if (r.statusCode() < 200 || r.statusCode() >= 300) {
+                throw new IOException("register failed: " + r.statusCode() + " " + r.body());
+            }
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+        storeToken(username, r.body());
+        return true;
+    }
+
+    public boolean login(String username, String password) throws IOException {
+        var map = new HashMap<String, Object>();
+        map.put("username", username);
+        map.put("password", password);
+        String json = gson.toJson(map);
+
+        HttpRequest req = HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+
+        HttpResponse<String> r;
+        try {
+            log.fine("sending login request for " + username);
+            r = client.send(req, HttpResponse.BodyHandlers.ofString());
+            // the body holds the token, only the status is logged
+            log.fine("login response: " + r.statusCode());
+        } catch (Exception e) {
+            log.log(Level.WARNING, "login request failed", e);
+            throw new RuntimeException(e.getMessage());
+        }
+        if (r.statusCode() < 200 || r.statusCode() >= 300) {
+            log.info("login of " + username + " failed with status " + r.statusCode());
+            throw new IOException("login failed: " + r.statusCode() + " " + r.body());
+        }
+        storeToken(username, r.body());
+        return true;
+    }
+
+    private void storeToken(String username, String body) {
+        Map<?, ?> res = gson.fromJson(body, Map.class);
+        token = res == null ? null : (String) res.get("token");
+        this.username = token == null ? null : username;
+        if (token != null) {
+            for (Consumer<String> listener : loginListeners) listener.accept(username);
+        }
+    }
+
+    /** Calls {@code listener} with the username after every successful login/register, on the caller's thread. */
+    public void onLogin(Consumer<String> listener) {
+        loginListeners.add(listener);
+    }
+
+    /** The user of the last successful login/register, or null before one. */
+    public String loggedInUser() {
+        return username;
+    }
+
+    /**
+     * Submits the score of one game with its replay: the seed the game was started with and the ticks
+     * at which the player jumped. The server re-plays the game and refuses scores it does not reproduce.
+     */
+    public void submitScore(String username, int score, long seed, int[] jumps) throws IOException {
+        await(submitScoreAsync(username, score, seed, jumps));
+    }
+
+    /**
+     * Like submitScore, without blocking: the future fails with an IOException (an ApiException for a
+     * non-2xx answer) and cancelling it aborts the request.
+     */
+    public CompletableFuture<Void> submitScoreAsync(String username, int score, long seed, int[] jumps) {
+        if (token == null) {
+            return CompletableFuture.failedFuture(new IOException("submitting score failed: not logged in"));
+        }
+        var map = new HashMap<String, Object>();
+        map.put("username", username);
+        map.put("highScore", score);
+        map.put("replay", Map.of("seed", seed, "jumps", jumps));
+        String json = gson.toJson(map);
+
+        HttpRequest req = HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/score"))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .header("Authorization", "Bearer " + token)
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+
+        CompletableFuture<HttpResponse<String>> exchange = client.sendAsync(req, HttpResponse.BodyHandlers.ofString());
+        return cancellable(exchange, exchange.thenApply(r -> {
+            if (r.statusCode() < 200 || r.statusCode() >= 300) {
+                throw new CompletionException(new ApiException("submitting score failed: " + r.statusCode() + " " + r.body(), r.statusCode()));
+            }
+            return null;
+        }));
+    }
+
+    public List<LeaderboardEntry> getLeaderboard() throws IOException, InterruptedException {
+        return await(getLeaderboardAsync());
+    }
+
+    /**
+     * The top of the leaderboard without blocking; a 304 answer re-uses the entries of the last call.
+     * The future fails with an IOException, and cancelling it aborts the request.
+     */
+    public CompletableFuture<List<LeaderboardEntry>> getLeaderboardAsync() {
+        CachedLeaderboard cached = cachedLeaderboard;
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/leaderboard"))
+                .timeout(REQUEST_TIMEOUT)
+                .GET();
+        if (cached != null && cached.etag() != null) {
+            builder.header("If-None-Match", cached.etag());
+        }
+
+        CompletableFuture<HttpResponse<List<LeaderboardEntry>>> exchange =
+                client.sendAsync(builder.build(), ClientJson.json(ClientJson.LEADERBOARD));
+        return cancellable(exchange, exchange.thenApply(res -> {
+            if (res.statusCode() == 304 && cached != null) {
+                return cached.entries();
+            }
+            if (res.statusCode() < 200 || res.statusCode() >= 300) {
+                throw new CompletionException(new IOException("leaderboard failed: " + res.statusCode()));
+            }
+            cachedLeaderboard = new CachedLeaderboard(res.headers().firstValue("ETag").orElse(null), res.body());
+            return res.body();
+        }));
+    }
+
+    // thenApply() futures do not pass a cancel() on to the exchange they depend on; this does
+    static <T> CompletableFuture<T> cancellable(CompletableFuture<?> exchange, CompletableFuture<T> result) {
+        result.whenComplete((r, e) -> {
+            if (e instanceof CancellationException) exchange.cancel(true);
+        });
+        return result;
+    }
+
+    // blocks on an async call for the synchronous methods, rethrowing its IOException as such
+    private static <T> T await(CompletableFuture<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) throw io;
+            if (e.getCause() instanceof UncheckedIOException io) throw io.getCause();
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Opens the leaderboard stream and keeps the top {@code limit} entries mirrored locally,
+     * so they can be shown without a request; close the mirror when it is no longer needed.
+     */
+    public LeaderboardMirror subscribeLeaderboard(int limit) {
+        LeaderboardMirror mirror = new LeaderboardMirror(client, URI.create(baseUrl + "/leaderboard/stream?limit=" + limit));
+        mirror.connect();
+        return mirror;
+    }
+
+    /**
+     * Opens the connection to the server before the first real request needs it: the DNS lookup, TLS
+     * handshake and HTTP/2 negotiation happen now, e.g. while the login screen is showing, and later
+     * requests reuse the connection. Fetches the leaderboard to do so, which also primes its ETag.
+     * The future never fails; a server that cannot be reached yet is simply not warmed up.
+     */
+    public CompletableFuture<Void> warmUp() {
+        return getLeaderboardAsync().handle((entries, e) -> null);
+    }
+
+    /**
+     * Returns the player's high score, 1-based rank and the total player count,
+     * or null if the player has no leaderboard entry yet.
+     */
+    public UserRank getUserRank(String username) throws IOException, InterruptedException {
+        return await(getUserRankAsync(username));
+    }
+
+    /** Like getUserRank, without blocking; the future fails with an IOException. */
+    public CompletableFuture<UserRank> getUserRankAsync(String username) {
+        HttpRequest req = HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/users/" + username + "/rank"))
+                .timeout(REQUEST_TIMEOUT)
+                .GET()
+                .build();
+
+        CompletableFuture<HttpResponse<UserRank>> exchange = client.sendAsync(req, ClientJson.json(ClientJson.USER_RANK));
+        return cancellable(exchange, exchange.thenApply(res -> {
+            if (res.statusCode() == 404) {
+                return null;
+            }
+            if (res.statusCode() < 200 || res.statusCode() >= 300) {
+                throw new CompletionException(new IOException("rank failed: " + res.statusCode()));
+            }
+            return res.body();
+        }));
+    }
+
+    public int getUserHighScore(String username) throws IOException, InterruptedException {
+        return await(getUserHighScoreAsync(username));
+    }
+
+    public CompletableFuture<Integer> getUserHighScoreAsync(String username) {
+        return getUserRankAsync(username).thenApply(rank -> rank == null ? 0 : rank.highScore());
+    }
+}
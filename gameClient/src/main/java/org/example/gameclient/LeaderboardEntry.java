@@ -0,0 +1,6 @@
+package org.example.gameclient;
+
+/*
+One row of the leaderboard, as /leaderboard and the leaderboard stream send it.
+ */
+public record LeaderboardEntry(String username, int highScore) {}
@@ -0,0 +1,143 @@
+package org.example.gameclient;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*
+Local copy of the top of the leaderboard, kept current by the server-sent events of /leaderboard/stream:
+a "snapshot" event fills it, "diff" events overwrite the positions that changed. Reading it costs no
+network round trip. A dropped stream is reopened with backoff and starts over with a fresh snapshot.
+ */
+public class LeaderboardMirror implements AutoCloseable {
+    private static final long MIN_BACKOFF_MILLIS = 1_000;
+    private static final long MAX_BACKOFF_MILLIS = 30_000;
+
+    // one event, see LeaderboardDiff on the server; decoded by ClientJson.LEADERBOARD_DIFF
+    record Diff(List<Change> changes, int size) {}
+
+    record Change(int rank, LeaderboardEntry entry) {}
+
+    private final HttpClient client;
+    private final URI uri;
+
+    // replaced, never modified, so readers on any thread see a complete list; null while disconnected
+    private volatile List<LeaderboardEntry> entries;
+    private volatile boolean closed;
+    private volatile Flow.Subscription stream;
+    private volatile long backoffMillis = MIN_BACKOFF_MILLIS;
+
+    LeaderboardMirror(HttpClient client, URI uri) {
+        this.client = client;
+        this.uri = uri;
+    }
+
+    /**
+     * The mirrored entries, in the shape getLeaderboard() returns,
+     * or null while the stream is not connected; callers then fall back to getLeaderboard().
+     */
+    public List<LeaderboardEntry> entries() {
+        return entries;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        entries = null;
+        Flow.Subscription s = stream;
+        if (s != null) s.cancel();
+    }
+
+    void connect() {
+        if (closed) return;
+        HttpRequest req = HttpRequest.newBuilder(uri)
+                .header("Accept", "text/event-stream")
+                .GET()
+                .build();
+        EventParser parser = new EventParser();
+        // the future completes when the stream ends, however it ends
+        client.sendAsync(req, info -> info.statusCode() == 200
+                        ? HttpResponse.BodySubscribers.fromLineSubscriber(parser)
+                        : HttpResponse.BodySubscribers.replacing(null))
+                .whenComplete((res, e) -> parser.end());
+    }
+
+    private void reconnect() {
+        entries = null;
+        if (closed) return;
+        long delay = backoffMillis;
+        backoffMillis = Math.min(backoffMillis * 2, MAX_BACKOFF_MILLIS);
+        CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS).execute(this::connect);
+    }
+
+    private void apply(String event, String data) {
+        Diff diff = ClientJson.decode(ClientJson.LEADERBOARD_DIFF, data);
+        List<LeaderboardEntry> next = event.equals("snapshot") || entries == null
+                ? new ArrayList<>()
+                : new ArrayList<>(entries);
+        for (Change c : diff.changes()) {
+            while (next.size() < c.rank()) next.add(null);
+            next.set(c.rank() - 1, c.entry());
+        }
+        while (next.size() > diff.size()) next.remove(next.size() - 1);
+        entries = Collections.unmodifiableList(next);
+        backoffMillis = MIN_BACKOFF_MILLIS;
+    }
+
+    // SSE framing: "event:" and "data:" lines, a blank line ends the event, ":" lines are heartbeats
+    private final class EventParser implements Flow.Subscriber<String> {
+        private String event = "message";
+        private final StringBuilder data = new StringBuilder();
+        private final AtomicBoolean ended = new AtomicBoolean();
+
+        void end() {
+            if (ended.compareAndSet(false, true)) reconnect();
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            stream = subscription;
+            if (closed) {
+                subscription.cancel();
+            } else {
+                subscription.request(Long.MAX_VALUE);
+            }
+        }
+
+        @Override
+        public void onNext(String line) {
+            if (line.isEmpty()) {
+                try {
+                    if (!data.isEmpty()) apply(event, data.toString());
+                } catch (RuntimeException e) {
+                    // a malformed event leaves the mirror unusable; start over with a new snapshot
+                    stream.cancel();
+                    end();
+                }
+                event = "message";
+                data.setLength(0);
+            } else if (line.startsWith("event:")) {
+                event = line.substring(6).trim();
+            } else if (line.startsWith("data:")) {
+                if (!data.isEmpty()) data.append('\n');
+                data.append(line.substring(5).trim());
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+}
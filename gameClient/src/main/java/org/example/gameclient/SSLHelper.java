@@ -1,4 +1,4 @@
-package org.example.gamedirectory;
+package org.example.gameclient;
 
 import javax.net.ssl.*;
 import java.security.KeyManagementException;
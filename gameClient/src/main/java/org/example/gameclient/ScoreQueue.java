@@ -0,0 +1,201 @@
+package org.example.gameclient;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/*
+Scores that have not reached the server yet. A submitted score is written to a small local file first
+and then sent with /score; while the server cannot be reached it stays in the file and is retried
+in the background, with a delay that doubles after every failed attempt (MIN_BACKOFF_MILLIS up to
+MAX_BACKOFF_MILLIS). Only the best score of each user is kept, together with its replay, since the
+server only ever keeps the best one too. Scores of other users wait until that user logs in again, and
+so does a score the server refused for the token (401/403, e.g. expired): it stays in the file, is not
+retried, and goes out after the next successful login.
+Everything, the file included, is done on the queue's own thread, never on the caller's.
+The file holds one line "<score> <seed> <jump,jump,...> <username>" per user and is replaced as a
+whole on every change, so a crash leaves either the old or the new version.
+ */
+public class ScoreQueue implements AutoCloseable {
+    private static final Logger log = Logger.getLogger(ScoreQueue.class.getName());
+    private static final long MIN_BACKOFF_MILLIS = 2_000;
+    private static final long MAX_BACKOFF_MILLIS = 300_000;
+
+    /** One game's score with the replay the server checks it against. */
+    public record Entry(String username, int score, long seed, int[] jumps) {}
+
+    private final HttpClientGame api;
+    private final Path file;
+    private final long minBackoffMillis;
+    private final ScheduledExecutorService executor;
+
+    // only touched on the executor's thread
+    private final Map<String, Entry> pending = new LinkedHashMap<>();
+    private ScheduledFuture<?> retry;
+    private long backoffMillis;
+
+    /**
+     * Loads the scores {@code file} still holds from an earlier run; they are sent once their user logs in
+     * (every login of {@code api} flushes the queue) or by the next submit().
+     */
+    public ScoreQueue(HttpClientGame api, Path file) {
+        this(api, file, MIN_BACKOFF_MILLIS);
+    }
+
+    ScoreQueue(HttpClientGame api, Path file, long minBackoffMillis) {
+        this.api = api;
+        this.file = file;
+        this.minBackoffMillis = minBackoffMillis;
+        this.backoffMillis = minBackoffMillis;
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "score-queue");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.execute(this::load);
+        api.onLogin(user -> flush());
+    }
+
+    /**
+     * Queues the score and, unless a retry is already scheduled, sends it right away. The future
+     * completes with true once the server has it and with false if it stays queued; it never fails.
+     */
+    public CompletableFuture<Boolean> submit(String username, int score, long seed, int[] jumps) {
+        Entry entry = new Entry(username, score, seed, jumps.clone());
+        return CompletableFuture.supplyAsync(() -> {
+            Entry queued = pending.get(username);
+            if (queued == null || score > queued.score()) {
+                pending.put(username, entry);
+                save();
+            }
+            if (retry != null) return false;
+            send();
+            return !pending.containsKey(username);
+        }, executor);
+    }
+
+    /** Sends whatever is queued for the logged-in user now, without waiting for a retry; does nothing once closed. */
+    public void flush() {
+        try {
+            executor.execute(() -> {
+                if (retry != null) {
+                    retry.cancel(false);
+                    retry = null;
+                }
+                backoffMillis = minBackoffMillis;
+                send();
+            });
+        } catch (RejectedExecutionException e) {
+            // closed, e.g. a login after the queue was: the scores wait in the file for the next run
+        }
+    }
+
+    @Override
+    public void close() {
+        // anything still queued is in the file for the next run
+        executor.shutdownNow();
+    }
+
+    private void send() {
+        String user = api.loggedInUser();
+        Entry entry = user == null ? null : pending.get(user);
+        if (entry == null) return;
+
+        try {
+            api.submitScore(user, entry.score(), entry.seed(), entry.jumps());
+            log.info("submitted score " + entry.score() + " of " + user);
+        } catch (ApiException e) {
+            if (e.statusCode() == 401 || e.statusCode() == 403) {
+                // the token, not the score: a retry would be refused the same way until the player logs in again
+                log.info("score " + entry.score() + " of " + user + " waits for the next login: " + e.getMessage());
+                return;
+            }
+            if (e.statusCode() == 429 || e.statusCode() >= 500) {
+                log.warning("server could not take score of " + user + ", retrying later: " + e.getMessage());
+                scheduleRetry();
+                return;
+            }
+            // 404, 422 (replay does not reproduce the score) and the like: sending it again would get the same answer
+            log.warning("server refused score " + entry.score() + " of " + user + ": " + e.getMessage());
+        } catch (IOException e) {
+            log.warning("submitting score of " + user + " failed, retrying later: " + e);
+            scheduleRetry();
+            return;
+        }
+        pending.remove(user);
+        save();
+        backoffMillis = minBackoffMillis;
+    }
+
+    private void scheduleRetry() {
+        // jitter, so clients that lost the server together do not all come back in the same second
+        long delay = backoffMillis / 2 + ThreadLocalRandom.current().nextLong(backoffMillis / 2 + 1);
+        backoffMillis = Math.min(backoffMillis * 2, MAX_BACKOFF_MILLIS);
+        retry = executor.schedule(() -> {
+            retry = null;
+            send();
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void load() {
+        if (!Files.exists(file)) return;
+        try {
+            for (String line : Files.readAllLines(file, StandardCharsets.US_ASCII)) {
+                Entry entry = parse(line);
+                if (entry != null) pending.put(entry.username(), entry);
+            }
+            if (!pending.isEmpty()) log.info(pending.size() + " unsent scores in " + file);
+        } catch (IOException e) {
+            log.warning("could not read queued scores from " + file + ": " + e);
+        }
+    }
+
+    private void save() {
+        StringBuilder out = new StringBuilder();
+        for (Entry e : pending.values()) {
+            out.append(e.score()).append(' ').append(e.seed()).append(' ');
+            if (e.jumps().length == 0) {
+                out.append('-');
+            }
+            for (int i = 0; i < e.jumps().length; i++) {
+                if (i > 0) out.append(',');
+                out.append(e.jumps()[i]);
+            }
+            out.append(' ').append(e.username()).append('\n');
+        }
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.writeString(tmp, out, StandardCharsets.US_ASCII);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // still queued in memory, only a restart before it is sent loses it
+            log.warning("could not write queued scores to " + file + ": " + e);
+        }
+    }
+
+    private static Entry parse(String line) {
+        String[] parts = line.split(" ");
+        if (parts.length != 4) return null;
+        try {
+            int[] jumps = parts[2].equals("-") ? new int[0]
+                    : Arrays.stream(parts[2].split(",")).mapToInt(Integer::parseInt).toArray();
+            return new Entry(parts[3], Integer.parseInt(parts[0]), Long.parseLong(parts[1]), jumps);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
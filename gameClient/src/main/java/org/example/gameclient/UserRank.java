@@ -0,0 +1,6 @@
+package org.example.gameclient;
+
+/*
+A player's position on the all-time leaderboard, as /users/{username}/rank sends it; rank is 1-based.
+ */
+public record UserRank(String username, int highScore, long rank, long totalPlayers) {}
@@ -0,0 +1,83 @@
+package org.example.gameclient;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClientJsonTests {
+
+    @Test
+    void decodesTheResponsesSkippingUnknownFields() {
+        String leaderboard = "[{\"username\":\"ann\",\"highScore\":30,\"lastUpdate\":\"2026-10-18\"},"
+                + "{\"username\":null,\"highScore\":0},null]";
+        List<LeaderboardEntry> entries = ClientJson.decode(ClientJson.LEADERBOARD, leaderboard.getBytes(StandardCharsets.UTF_8));
+        assertEquals(List.of(new LeaderboardEntry("ann", 30), new LeaderboardEntry(null, 0)), entries.subList(0, 2));
+        assertNull(entries.get(2));
+        assertThrows(UnsupportedOperationException.class, () -> entries.add(null));
+
+        UserRank rank = ClientJson.decode(ClientJson.USER_RANK,
+                "{\"rank\":3,\"totalPlayers\":12000000000,\"username\":\"ann\",\"highScore\":30,\"extra\":{\"a\":[1]}}");
+        assertEquals(new UserRank("ann", 30, 3, 12_000_000_000L), rank);
+
+        LeaderboardMirror.Diff diff = ClientJson.decode(ClientJson.LEADERBOARD_DIFF,
+                "{\"size\":2,\"changes\":[{\"rank\":2,\"username\":\"ben\",\"highScore\":20}]}");
+        assertEquals(2, diff.size());
+        assertEquals(List.of(new LeaderboardMirror.Change(2, new LeaderboardEntry("ben", 20))), diff.changes());
+    }
+
+    @Test
+    void aBodyOfTheWrongShapeIsAnUncheckedIOException() {
+        UncheckedIOException e = assertThrows(UncheckedIOException.class,
+                () -> ClientJson.decode(ClientJson.LEADERBOARD, "{\"username\":\"ann\"}"));
+        assertTrue(e.getCause().getMessage().startsWith("unexpected JSON"));
+        assertThrows(UncheckedIOException.class,
+                () -> ClientJson.decode(ClientJson.USER_RANK, "{\"rank\":\"first\"}"));
+        assertThrows(UncheckedIOException.class,
+                () -> ClientJson.decode(ClientJson.LEADERBOARD, "[{\"username\":".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void multiByteCharactersAndSurrogatePairsSurviveAnyReadSize() throws IOException {
+        // 2, 3 and 4 byte sequences; the emoji is a surrogate pair in UTF-16
+        String text = "aé漢🐦b😀😀ü";
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        for (int chunk = 1; chunk <= 5; chunk++) {
+            assertEquals(text, readAll(new ClientJson.Utf8Reader(bytes), chunk), "reads of " + chunk);
+        }
+        String json = "[{\"username\":\"" + text + "\",\"highScore\":1}]";
+        assertEquals(text, ClientJson.decode(ClientJson.LEADERBOARD, json.getBytes(StandardCharsets.UTF_8)).get(0).username());
+    }
+
+    @Test
+    void malformedInputBecomesReplacementCharacters() throws IOException {
+        byte[][] malformed = {
+                {'a', (byte) 0x80, 'b'},                          // continuation byte without a lead
+                {'a', (byte) 0xc3, 'b'},                          // lead byte without its continuation
+                {'a', (byte) 0xe6, (byte) 0xbc},                  // truncated at the end
+                {'a', (byte) 0xc0, (byte) 0xaf},                  // overlong '/'
+                {'a', (byte) 0xed, (byte) 0xa0, (byte) 0x80},     // UTF-16 surrogate encoded on its own
+                {'a', (byte) 0xf4, (byte) 0x90, (byte) 0x80, (byte) 0x80}, // past U+10FFFF
+                {'a', (byte) 0xff},
+        };
+        String[] expected = {"a�b", "a�b", "a�", "a�", "a�", "a�", "a�"};
+        for (int i = 0; i < malformed.length; i++) {
+            assertEquals(expected[i], readAll(new ClientJson.Utf8Reader(malformed[i]), 8), "input " + i);
+        }
+    }
+
+    private static String readAll(Reader in, int chunk) throws IOException {
+        StringBuilder out = new StringBuilder();
+        char[] buf = new char[chunk];
+        int n;
+        while ((n = in.read(buf, 0, chunk)) != -1) {
+            out.append(buf, 0, n);
+        }
+        return out.toString();
+    }
+}
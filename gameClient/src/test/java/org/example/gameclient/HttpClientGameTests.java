@@ -0,0 +1,36 @@
+package org.example.gameclient;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpClientGameTests {
+
+    @Test
+    void cancellingTheResultCancelsTheExchange() {
+        CompletableFuture<String> exchange = new CompletableFuture<>();
+        CompletableFuture<Integer> result = HttpClientGame.cancellable(exchange, exchange.thenApply(String::length));
+
+        assertTrue(result.cancel(true));
+        assertTrue(exchange.isCancelled());
+    }
+
+    @Test
+    void aResultThatCompletesOrFailsLeavesTheExchangeAlone() {
+        CompletableFuture<String> exchange = new CompletableFuture<>();
+        CompletableFuture<Integer> result = HttpClientGame.cancellable(exchange, exchange.thenApply(String::length));
+        exchange.complete("four");
+        assertEquals(4, result.join());
+        assertFalse(exchange.isCancelled());
+
+        CompletableFuture<String> failing = new CompletableFuture<>();
+        CompletableFuture<Integer> failed = HttpClientGame.cancellable(failing, failing.thenApply(s -> {
+            throw new IllegalStateException("bad body");
+        }));
+        failing.complete("x");
+        assertTrue(failed.isCompletedExceptionally());
+        assertFalse(failing.isCancelled());
+    }
+}
@@ -0,0 +1,104 @@
+package org.example.gameclient;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// a stand-in for /leaderboard/stream that plays one scripted stream per connection
+class LeaderboardMirrorTests {
+    private HttpServer server;
+    private URI uri;
+    private final AtomicInteger connections = new AtomicInteger();
+    // the first stream stays open until this is released
+    private final CountDownLatch endFirstStream = new CountDownLatch(1);
+    private final CountDownLatch stopped = new CountDownLatch(1);
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/stream", exchange -> {
+            int connection = connections.incrementAndGet();
+            exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                switch (connection) {
+                    case 1 -> {
+                        write(out, "event:snapshot\ndata:{\"changes\":[{\"rank\":1,\"username\":\"ann\",\"highScore\":30},"
+                                + "{\"rank\":2,\"username\":\"ben\",\"highScore\":20}],\"size\":2}\n\n");
+                        // a heartbeat, an unknown field and a data line split in two
+                        write(out, ":ping\n\nevent:diff\ndata:{\"changes\":[{\"rank\":2,\"username\":\"cid\",\n"
+                                + "data:\"highScore\":25,\"streak\":3}],\"size\":2}\n\n");
+                        endFirstStream.await();
+                    }
+                    // garbage: the mirror has to drop this stream and start over
+                    case 2 -> write(out, "event:diff\ndata:{\"changes\":[{\"rank\":\"x\"}\n\n");
+                    default -> {
+                        write(out, "event:snapshot\ndata:{\"changes\":[{\"rank\":1,\"username\":\"dan\",\"highScore\":50}],\"size\":1}\n\n");
+                        stopped.await();
+                    }
+                }
+            } catch (InterruptedException | IOException e) {
+                // the test is over or the mirror went away
+            }
+        });
+        server.start();
+        uri = URI.create("http://localhost:" + server.getAddress().getPort() + "/stream");
+    }
+
+    @AfterEach
+    void stopServer() {
+        stopped.countDown();
+        endFirstStream.countDown();
+        server.stop(0);
+    }
+
+    @Test
+    void followsTheStreamAndStartsOverAfterItDrops() throws Exception {
+        LeaderboardMirror mirror = new LeaderboardMirror(HttpClient.newHttpClient(), uri);
+        assertNull(mirror.entries());
+        mirror.connect();
+
+        await(() -> List.of(new LeaderboardEntry("ann", 30), new LeaderboardEntry("cid", 25)).equals(mirror.entries()));
+        assertThrows(UnsupportedOperationException.class, () -> mirror.entries().clear());
+
+        endFirstStream.countDown();
+        // reconnects (1 s, then 2 s after the malformed stream) and starts from the new snapshot
+        await(() -> List.of(new LeaderboardEntry("dan", 50)).equals(mirror.entries()));
+        assertEquals(3, connections.get());
+
+        mirror.close();
+        assertNull(mirror.entries());
+        Thread.sleep(1500);
+        assertEquals(3, connections.get());
+    }
+
+    private static void write(OutputStream out, String s) throws IOException {
+        out.write(s.getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "timed out");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package org.example.gameclient;
+
+import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// against a stand-in for the API that records every /score call and answers with the queued status codes
+class ScoreQueueTests {
+    private static final int[] JUMPS = {0, 31, 58};
+
+    @TempDir
+    Path dir;
+
+    private HttpServer server;
+    private HttpClientGame api;
+    // what /score answers next; 200 once empty
+    private final Queue<Integer> answers = new ConcurrentLinkedQueue<>();
+    // "<username>=<score>:<status>" per /score call
+    private final List<String> received = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/api/login", exchange -> respond(exchange, 200, "{\"token\":\"t\"}"));
+        server.createContext("/api/score", exchange -> {
+            Map<?, ?> body = new Gson().fromJson(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8), Map.class);
+            Integer answer = answers.poll();
+            int status = answer == null ? 200 : answer;
+            received.add(body.get("username") + "=" + ((Number) body.get("highScore")).intValue() + ":" + status);
+            respond(exchange, status, "");
+        });
+        server.start();
+        api = new HttpClientGame("http://localhost:" + server.getAddress().getPort() + "/api", HttpClient.newHttpClient());
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void onlyTheBestScoreIsKeptAndItSurvivesARestart() throws Exception {
+        Path file = dir.resolve("pending-scores");
+        ScoreQueue queue = new ScoreQueue(api, file, 20);
+        // nobody is logged in: everything stays queued
+        assertFalse(queue.submit("ann", 5, 11, JUMPS).get());
+        assertFalse(queue.submit("ann", 9, 12, JUMPS).get());
+        assertFalse(queue.submit("ann", 7, 13, JUMPS).get());
+        assertFalse(queue.submit("ben", 3, 14, new int[0]).get());
+        assertEquals(List.of("9 12 0,31,58 ann", "3 14 - ben"), Files.readAllLines(file));
+        queue.close();
+
+        ScoreQueue restarted = new ScoreQueue(api, file, 20);
+        api.login("ann", "pw");
+        await(() -> received.equals(List.of("ann=9:200")));
+        await(() -> lines(file).equals(List.of("3 14 - ben")));
+        restarted.close();
+    }
+
+    @Test
+    void serverTroubleIsRetriedAndRefusalsAreDropped() throws Exception {
+        Path file = dir.resolve("pending-scores");
+        api.login("ann", "pw");
+        ScoreQueue queue = new ScoreQueue(api, file, 20);
+
+        answers.addAll(List.of(503, 429));
+        assertFalse(queue.submit("ann", 5, 11, JUMPS).get());
+        await(() -> received.equals(List.of("ann=5:503", "ann=5:429", "ann=5:200")));
+        await(() -> lines(file).isEmpty());
+
+        // the replay does not reproduce the score: sending it again would get the same answer
+        answers.add(422);
+        queue.submit("ann", 8, 12, JUMPS).get();
+        assertEquals("ann=8:422", received.get(3));
+        assertEquals(List.of(), Files.readAllLines(file));
+        Thread.sleep(200);
+        assertEquals(4, received.size());
+        queue.close();
+    }
+
+    @Test
+    void aScoreRefusedForTheTokenWaitsForTheNextLogin() throws Exception {
+        Path file = dir.resolve("pending-scores");
+        api.login("ann", "pw");
+        ScoreQueue queue = new ScoreQueue(api, file, 20);
+
+        answers.add(401);
+        assertFalse(queue.submit("ann", 6, 11, JUMPS).get());
+        Thread.sleep(200);
+        assertEquals(List.of("ann=6:401"), received);
+        assertEquals(List.of("6 11 0,31,58 ann"), Files.readAllLines(file));
+
+        api.login("ann", "pw");
+        await(() -> received.equals(List.of("ann=6:401", "ann=6:200")));
+        await(() -> lines(file).isEmpty());
+        queue.close();
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        if (bytes.length > 0) exchange.getResponseBody().write(bytes);
+        exchange.close();
+    }
+
+    private static List<String> lines(Path file) {
+        try {
+            return Files.readAllLines(file);
+        } catch (IOException e) {
+            return List.of("unreadable: " + e);
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "timed out");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -3,6 +3,9 @@ module org.example.gamedirectory {
     requires javafx.fxml;
     requires com.google.gson;
     requires java.net.http;
+    requires java.logging;
+    requires org.example.gameclient;
+    requires org.example.gameengine;
 
     opens org.example.gamedirectory to javafx.fxml;
     exports org.example.gamedirectory;
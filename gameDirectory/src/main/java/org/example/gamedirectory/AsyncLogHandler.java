@@ -0,0 +1,233 @@
+package org.example.gamedirectory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.ErrorManager;
+import java.util.logging.Formatter;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+import java.util.logging.SimpleFormatter;
+import java.util.regex.Pattern;
+
+/*
+java.util.logging handler that never makes the logging thread wait for the disk. publish() only puts the
+record into a ring of CAPACITY slots, and a daemon thread formats the records, blanks out secrets and
+appends them to the log file. When the ring is full, new records are dropped and counted, and the writer
+notes how many it missed, so a burst of logging on the FX thread costs a frame nothing.
+The file is rotated by size: once it passes maxBytes it becomes <name>.1, the older files move up one
+number, and the oldest beyond maxFiles is deleted.
+ */
+public class AsyncLogHandler extends Handler {
+    private static final int CAPACITY = 4096;
+    private static final DateTimeFormatter TIME =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+    // only used for formatMessage(): "{0}" parameters and resource bundles
+    private static final Formatter MESSAGES = new SimpleFormatter();
+
+    // key=value, "key":"value" and key: value for anything that looks like a credential
+    private static final Pattern SECRET_FIELD = Pattern.compile(
+            "(?i)(\"?(?:password|passwd|pwd|token|secret|api[-_]?key)\"?\\s*[:=]\\s*\"?)[^\"\\s,&}]+");
+    private static final Pattern BEARER = Pattern.compile("(?i)(bearer\\s+)[A-Za-z0-9._~+/=-]+");
+
+    private final Path file;
+    private final long maxBytes;
+    private final int maxFiles;
+
+    // the ring: records in slots head..tail-1 (mod CAPACITY), guarded by "this"; never waited on by publish()
+    private final LogRecord[] ring = new LogRecord[CAPACITY];
+    private long head;
+    private long tail;
+    private boolean closed;
+    private final AtomicLong dropped = new AtomicLong();
+
+    private final Thread writerThread;
+    private Writer out;
+    private long size;
+
+    public AsyncLogHandler(Path file, long maxBytes, int maxFiles) throws IOException {
+        this.file = file;
+        this.maxBytes = maxBytes;
+        this.maxFiles = maxFiles;
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        open();
+        writerThread = new Thread(this::writeLoop, "log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /** Replaces credentials and bearer tokens in {@code s} with "***". */
+    public static String redact(String s) {
+        if (s == null) return null;
+        s = SECRET_FIELD.matcher(s).replaceAll("$1***");
+        return BEARER.matcher(s).replaceAll("$1***");
+    }
+
+    /**
+     * A PrintStream that logs every line printed to it to {@code logger}, for System.out and System.err:
+     * whatever libraries print ends up in the log, through the same ring.
+     */
+    public static PrintStream lines(Logger logger, Level level) {
+        return new PrintStream(new OutputStream() {
+            private final ByteArrayOutputStream line = new ByteArrayOutputStream(128);
+
+            @Override
+            public void write(int b) {
+                if (b == '\n') {
+                    String s = line.toString(StandardCharsets.UTF_8);
+                    logger.log(level, s.endsWith("\r") ? s.substring(0, s.length() - 1) : s);
+                    line.reset();
+                } else {
+                    line.write(b);
+                }
+            }
+        }, true, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void publish(LogRecord record) {
+        if (!isLoggable(record)) return;
+        synchronized (this) {
+            if (closed) return;
+            if (tail - head == CAPACITY) {
+                dropped.incrementAndGet();
+                return;
+            }
+            ring[(int) (tail++ % CAPACITY)] = record;
+            // the writer only waits while the ring is empty
+            if (tail - head == 1) notifyAll();
+        }
+    }
+
+    /** The writer flushes after every batch anyway; this does not wait for it. */
+    @Override
+    public void flush() {
+    }
+
+    /** Writes out what is queued, then closes the file. */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) return;
+            closed = true;
+            notifyAll();
+        }
+        try {
+            writerThread.join(2_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeLoop() {
+        List<LogRecord> batch = new ArrayList<>();
+        while (true) {
+            boolean last;
+            synchronized (this) {
+                while (head == tail && !closed) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                while (head < tail) {
+                    int slot = (int) (head++ % CAPACITY);
+                    batch.add(ring[slot]);
+                    ring[slot] = null;
+                }
+                last = closed;
+            }
+            try {
+                long missed = dropped.getAndSet(0);
+                if (missed > 0) {
+                    write(TIME.format(Instant.now()) + " WARNING log: " + missed + " records dropped, logging too fast\n");
+                }
+                for (LogRecord r : batch) {
+                    write(format(r));
+                }
+                out.flush();
+            } catch (IOException | RuntimeException e) {
+                reportError("could not write log", e, ErrorManager.WRITE_FAILURE);
+            }
+            batch.clear();
+            if (last) {
+                try {
+                    out.close();
+                } catch (IOException e) {
+                    reportError("could not close log", e, ErrorManager.CLOSE_FAILURE);
+                }
+                return;
+            }
+        }
+    }
+
+    private String format(LogRecord r) {
+        StringBuilder line = new StringBuilder(128)
+                .append(TIME.format(r.getInstant())).append(' ')
+                .append(r.getLevel().getName()).append(' ')
+                .append(shortName(r.getLoggerName())).append(": ")
+                .append(MESSAGES.formatMessage(r)).append('\n');
+        if (r.getThrown() != null) {
+            StringWriter trace = new StringWriter();
+            r.getThrown().printStackTrace(new PrintWriter(trace));
+            line.append(trace);
+        }
+        return redact(line.toString());
+    }
+
+    private static String shortName(String logger) {
+        if (logger == null) return "";
+        int dot = logger.lastIndexOf('.');
+        return dot < 0 ? logger : logger.substring(dot + 1);
+    }
+
+    private void write(String s) throws IOException {
+        if (size >= maxBytes) rotate();
+        out.write(s);
+        // close enough for deciding when to rotate; log lines are nearly all ASCII
+        size += s.length();
+    }
+
+    private void rotate() throws IOException {
+        out.close();
+        Files.deleteIfExists(numbered(maxFiles - 1));
+        for (int i = maxFiles - 2; i >= 1; i--) {
+            if (Files.exists(numbered(i))) {
+                Files.move(numbered(i), numbered(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        if (maxFiles > 1) {
+            Files.move(file, numbered(1), StandardCopyOption.REPLACE_EXISTING);
+        } else {
+            Files.deleteIfExists(file);
+        }
+        open();
+    }
+
+    private void open() throws IOException {
+        out = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        size = Files.size(file);
+    }
+
+    private Path numbered(int i) {
+        return file.resolveSibling(file.getFileName() + "." + i);
+    }
+}
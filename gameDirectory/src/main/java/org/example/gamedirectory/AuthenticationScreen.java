@@ -10,11 +10,18 @@ import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
+import org.example.gameclient.HttpClientGame;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 public class AuthenticationScreen {
+    private static final Logger logger = Logger.getLogger(AuthenticationScreen.class.getName());
+
     private final HttpClientGame httpClientGame;
     private String currentUsername;
-    private String currentPassword;
+    // System.nanoTime() of the last login/register/guest click, for measuring time to the first frame
+    private long authStartedNanos;
 
     public AuthenticationScreen(HttpClientGame httpClientGame) {
         this.httpClientGame = httpClientGame;
@@ -55,8 +62,8 @@ public class AuthenticationScreen {
         Button guestButton = new Button("Play as Guest");
         guestButton.setPrefWidth(100);
         guestButton.setOnAction(e -> {
+            authStartedNanos = System.nanoTime();
             currentUsername = "guest";
-            currentPassword = "guest";
             authStage.close();
             onAuthSuccess.run();
         });
@@ -84,37 +91,28 @@ public class AuthenticationScreen {
     }
 
     private void handleLogin(String username, String password, Runnable onAuthSuccess, Stage authStage) {
-        System.out.println("handle login called with values " + username + " "  + password);
+        authStartedNanos = System.nanoTime();
         if (username.isEmpty() || password.isEmpty()) {
             showError("Please enter username and password");
             return;
         }
         try {
-            System.out.println("calling http login");
-            System.out.flush();
             boolean successfullyLogin = httpClientGame.login(username, password);
-            System.out.println("did call http login with result " + successfullyLogin);
-            System.out.flush();
             if (successfullyLogin) {
                 currentUsername = username;
-                currentPassword = password;
-                System.out.println("current user set to " + currentUsername + " " + currentPassword);
-                System.out.flush();
+                logger.info("logged in as " + currentUsername);
                 authStage.close();
                 onAuthSuccess.run();
             }
             else showError("Login failed");
         } catch (Exception e) {
-            System.out.println("EXCEPTION CAUGHT:");
-            System.out.println("Exception type: " + e.getClass().getName());
-            System.out.println("Exception message: " + e.getMessage());
-            e.printStackTrace();
-            System.out.flush();
+            logger.log(Level.WARNING, "login of " + username + " failed", e);
             showError("Exception during Login: " + e.getMessage());
         }
     }
 
     private void handleRegister(String username, String password, Runnable onAuthSuccess, Stage authStage) {
+        authStartedNanos = System.nanoTime();
         if (username.isEmpty() || password.isEmpty()) {
             showError("Please enter username and password");
             return;
@@ -123,12 +121,12 @@ public class AuthenticationScreen {
             boolean successfullyRegistered = httpClientGame.register(username, password);
             if (successfullyRegistered) {
                 currentUsername = username;
-                currentPassword = password;
                 authStage.close();
                 onAuthSuccess.run();
             }
             else showError("Registration Failed");
         } catch (Exception e) {
+            logger.log(Level.WARNING, "registration of " + username + " failed", e);
             showError("Exception during Registration " + e.getMessage());
         }
     }
@@ -142,7 +140,7 @@ public class AuthenticationScreen {
         return currentUsername;
     }
 
-    public String getCurrentPassword() {
-        return currentPassword;
+    public long getAuthStartedNanos() {
+        return authStartedNanos;
     }
 }
@@ -2,6 +2,7 @@ package org.example.gamedirectory;
 
 import javafx.animation.AnimationTimer;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.geometry.VPos;
 import javafx.scene.Group;
 import javafx.scene.Scene;
@@ -18,9 +19,19 @@ import javafx.scene.text.Text;
 import javafx.stage.Stage;
 //import javafx.scene.media.Media;
 //import javafx.scene.media.MediaPlayer;
+import org.example.gameclient.HttpClientGame;
+import org.example.gameclient.LeaderboardEntry;
+import org.example.gameclient.LeaderboardMirror;
+import org.example.gameclient.ScoreQueue;
+import org.example.gameengine.FlappyEngine;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.logging.Handler;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 public class FlappyBirdGame extends Application {
@@ -28,25 +39,32 @@ public class FlappyBirdGame extends Application {
     /* =========================================================
      *  STATIC CONSTANTS
      * ========================================================= */
-    private static final double WIDTH = 400;
-    private static final double HEIGHT = 600;
+    private static final double WIDTH = FlappyEngine.WIDTH;
+    private static final double HEIGHT = FlappyEngine.HEIGHT;
 
-    private static final double PLAYER_RADIUS = 18.0;
-    private static final double SPAWN_INTERVAL = 1.2;
-    private static final double HITBOX_SCALE = 0.95;
+    private static final double PLAYER_RADIUS = FlappyEngine.PLAYER_RADIUS;
 
-    private static final double FIXED_DT = 1.0 / 60.0;
+    private static final double FIXED_DT = FlappyEngine.FIXED_DT;
     private static final double MAX_ACCUM = 0.25;
 
+    private static final long LOG_MAX_BYTES = 1_000_000;
+    private static final int LOG_FILES = 5;
+    // the LogManager holds loggers weakly, and a collected logger forgets the level set on it
+    private static final List<Logger> CONFIGURED_LOGGERS = new ArrayList<>();
+
     /* =========================================================
      *  INSTANCE VARIABLES
      * ========================================================= */
 
     // ---- Networking / Authentication ----
     private HttpClientGame httpClientGame;
+    private LeaderboardMirror leaderboardMirror;
+    // scores go through here, so one the server did not get is kept on disk and sent later
+    private ScoreQueue scoreQueue;
+    // ranking requested by the last gameOver(), still on its way
+    private CompletableFuture<List<LeaderboardEntry>> pendingLeaderboard;
     private AuthenticationScreen authScreen;
     private String loggedInUsername = "guest";
-    private String loggedInPassword;
 
     // ---- JavaFX Root + UI ----
     private Pane root;
@@ -56,21 +74,24 @@ public class FlappyBirdGame extends Application {
     private final Logger logger = Logger.getLogger(getClass().getName());
 
     // ---- Game State ----
-    private double velocity = 0;
-    private int score = 0;
+    // the rules live in the engine; this class only draws its state and feeds it jumps
+    private long seed = ThreadLocalRandom.current().nextLong();
+    private final FlappyEngine engine = new FlappyEngine(seed);
     private int highscore = 0;
 
     private boolean running = true;
     private boolean hasJumpedOnce = false;
 
-    // ---- Pipes + Random ----
-    private final ArrayList<Rectangle[]> pipes = new ArrayList<>();
-    private final Random rand = new Random();
+    // ---- Replay: the ticks at which the player jumped, sent with the score ----
+    private int[] jumps = new int[256];
+    private int jumpCount = 0;
+
+    // ---- Pipes: one top/bottom pair of nodes per engine pipe slot ----
+    private final Rectangle[][] pipes = new Rectangle[FlappyEngine.MAX_PIPES][];
 
     // ---- Game Loop Timing ----
     private long prevTime = 0;
     private double accumulator = 0.0;
-    private double spawnTimer = SPAWN_INTERVAL;
 
     // ---- Audio ----
 //    private MediaPlayer deathSound;
@@ -83,11 +104,23 @@ public class FlappyBirdGame extends Application {
     @Override
     public void start(Stage primaryStage) {
         httpClientGame = new HttpClientGame("https://api.myveryownhomenetwork.site/api");
+        // sends the scores left over from a session without a connection once their player logs in
+        scoreQueue = new ScoreQueue(httpClientGame, Path.of(System.getProperty("user.home"), ".flappybird", "pending-scores"));
         authScreen = new AuthenticationScreen(httpClientGame);
+        // connect while the player is still typing, so login and the requests after it skip the handshake
+        httpClientGame.warmUp();
 
         authScreen.show(primaryStage, () -> startGame(primaryStage));
     }
 
+    @Override
+    public void stop() {
+        if (leaderboardMirror != null) {
+            leaderboardMirror.close();
+        }
+        scoreQueue.close();
+    }
+
 
     /* =========================================================
      *  GAME INITIALIZATION
@@ -95,17 +128,23 @@ public class FlappyBirdGame extends Application {
     private void startGame(Stage primaryStage) {
 
         loggedInUsername = authScreen.getCurrentUsername();
-        loggedInPassword = authScreen.getCurrentPassword();
         logger.info("logging works with user: " + loggedInUsername);
 
         if (!loggedInUsername.equals("guest")) {
-            try {
-                logger.info("updating highscore variable");
-                highscore = httpClientGame.getUserHighScore(loggedInUsername);
+            // both requests go out at once over the connection login used; the first frame waits for neither
+            httpClientGame.getUserHighScoreAsync(loggedInUsername).whenComplete((best, e) -> Platform.runLater(() -> {
+                if (e != null) {
+                    logger.warning("could not load highscore: " + e);
+                    return;
+                }
+                // a game may already have ended with a better score
+                highscore = Math.max(highscore, best);
                 logger.info("highscore: " + highscore);
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
+            }));
+            // primes the ETag, so a game-over ranking fetched before the mirror is connected costs a 304
+            httpClientGame.getLeaderboardAsync();
+            // the game-over ranking is rendered from this local copy instead of a request per death
+            leaderboardMirror = httpClientGame.subscribeLeaderboard(3);
         }
 
         root = new Pane();
@@ -124,8 +163,8 @@ public class FlappyBirdGame extends Application {
 
         // Bird
         player = createBird();
-        player.setTranslateX(100);
-        player.setTranslateY(HEIGHT / 2);
+        player.setTranslateX(FlappyEngine.PLAYER_X);
+        player.setTranslateY(engine.birdY());
 
         // Score Text
         scoreText = new Text("0");
@@ -151,7 +190,9 @@ public class FlappyBirdGame extends Application {
 
 //        loadSounds();
 
-        root.getChildren().addAll(sky, ground, player, scoreText, startHint);
+        root.getChildren().addAll(sky, ground);
+        addPipes();
+        root.getChildren().addAll(player, scoreText, startHint);
 
         scene.setOnKeyPressed(e -> {
             if (e.getCode() == KeyCode.SPACE) {
@@ -175,6 +216,8 @@ public class FlappyBirdGame extends Application {
             public void handle(long now) {
                 if (prevTime == 0) {
                     prevTime = now;
+                    long authMillis = (System.nanoTime() - authScreen.getAuthStartedNanos()) / 1_000_000;
+                    logger.info("first frame " + authMillis + " ms after login");
                     return;
                 }
 
@@ -187,12 +230,18 @@ public class FlappyBirdGame extends Application {
                 prevTime = now;
 
                 frameDt = Math.min(frameDt, MAX_ACCUM);
-                accumulator += frameDt;
+                // nothing moves until the first jump
+                accumulator = hasJumpedOnce ? accumulator + frameDt : 0.0;
 
-                while (accumulator >= FIXED_DT) {
-                    physicsUpdate();
+                boolean alive = true;
+                while (alive && accumulator >= FIXED_DT) {
+                    alive = engine.step();
                     accumulator -= FIXED_DT;
                 }
+                render();
+                if (!alive) {
+                    gameOver();
+                }
 
                 scoreText.setTranslateX(WIDTH / 2 - scoreText.getLayoutBounds().getWidth() / 2);
             }
@@ -233,94 +282,56 @@ public class FlappyBirdGame extends Application {
 
 
     /* =========================================================
-     *  GAME LOOP / PHYSICS
+     *  GAME LOOP / RENDERING FROM THE ENGINE
      * ========================================================= */
-    private void physicsUpdate() {
-        if (!hasJumpedOnce) return;
+    private void render() {
+        player.setTranslateY(engine.birdY());
 
-        double gravity = 1000.0;
-
-        velocity += gravity * FIXED_DT;
-        player.setTranslateY(player.getTranslateY() + velocity * FIXED_DT);
-
-        double angle = Math.max(-25, Math.min(90, velocity / 6));
+        double angle = Math.max(-25, Math.min(90, engine.velocity() / 6));
         player.setRotate(angle);
 
-        spawnTimer -= FIXED_DT;
-        if (spawnTimer <= 0) {
-            spawnPipes();
-            spawnTimer += SPAWN_INTERVAL;
+        for (int i = 0; i < FlappyEngine.MAX_PIPES; i++) {
+            Rectangle top = pipes[i][0];
+            Rectangle bottom = pipes[i][1];
+            boolean active = engine.pipeActive(i);
+            top.setVisible(active);
+            bottom.setVisible(active);
+            if (!active) continue;
+
+            double gapY = engine.pipeGapY(i);
+            top.setTranslateX(engine.pipeX(i));
+            top.setHeight(gapY);
+            bottom.setTranslateX(engine.pipeX(i));
+            bottom.setTranslateY(gapY + FlappyEngine.PIPE_GAP);
+            bottom.setHeight(HEIGHT - (gapY + FlappyEngine.PIPE_GAP) - FlappyEngine.GROUND_HEIGHT);
         }
 
-        Iterator<Rectangle[]> it = pipes.iterator();
-        while (it.hasNext()) {
-            Rectangle[] pair = it.next();
-            Rectangle top = pair[0];
-            Rectangle bottom = pair[1];
-
-            double scrollSpeed = 200.0;
-            double dx = scrollSpeed * FIXED_DT;
-            top.setTranslateX(top.getTranslateX() - dx);
-            bottom.setTranslateX(bottom.getTranslateX() - dx);
-
-            if (!top.getProperties().containsKey("scored")
-                    && top.getTranslateX() + top.getWidth() < player.getTranslateX()) {
-
-                top.getProperties().put("scored", true);
-                score++;
-                scoreText.setText(String.valueOf(score));
-            }
-
-            double cx = player.getTranslateX();
-            double cy = player.getTranslateY();
-            double r = PLAYER_RADIUS * HITBOX_SCALE;
-
-            if (circleIntersectsRect(cx, cy, r, top) ||
-                    circleIntersectsRect(cx, cy, r, bottom)) {
-                gameOver();
-            }
-
-            if (top.getTranslateX() + top.getWidth() < -50) {
-                root.getChildren().removeAll(top, bottom);
-                it.remove();
-            }
+        String score = String.valueOf(engine.score());
+        if (!score.equals(scoreText.getText())) {
+            scoreText.setText(score);
         }
+    }
 
-        if (player.getTranslateY() - PLAYER_RADIUS < 0 ||
-                player.getTranslateY() + PLAYER_RADIUS > HEIGHT - 60) {
-            gameOver();
+    // pipe nodes are created once and shown, moved and hidden as the engine's pipe slots change
+    private void addPipes() {
+        for (int i = 0; i < FlappyEngine.MAX_PIPES; i++) {
+            if (pipes[i] == null) {
+                pipes[i] = new Rectangle[]{createPipe(), createPipe()};
+            }
+            pipes[i][0].setVisible(false);
+            pipes[i][1].setVisible(false);
+            root.getChildren().addAll(pipes[i]);
         }
     }
 
-    private void spawnPipes() {
-        double gap = 120;
-        double minY = 80;
-        double maxY = HEIGHT - 80 - gap - 60;
-        double y = minY + rand.nextDouble() * Math.max(0, (maxY - minY));
-
-        Rectangle top = new Rectangle(60, y);
-        top.setArcWidth(14);
-        top.setArcHeight(14);
-        top.setTranslateX(WIDTH);
-        top.setTranslateY(0);
-        top.setFill(new LinearGradient(0, 0, 0, 1, true, CycleMethod.NO_CYCLE,
+    private Rectangle createPipe() {
+        Rectangle pipe = new Rectangle(FlappyEngine.PIPE_WIDTH, 0);
+        pipe.setArcWidth(14);
+        pipe.setArcHeight(14);
+        pipe.setFill(new LinearGradient(0, 0, 0, 1, true, CycleMethod.NO_CYCLE,
                 new Stop(0, Color.web("#6BBF6B")), new Stop(1, Color.web("#2E8B57"))));
-        top.setEffect(new DropShadow(8, Color.gray(0, 0.35)));
-
-        Rectangle bottom = new Rectangle(60, HEIGHT - (y + gap) - 60);
-        bottom.setArcWidth(14);
-        bottom.setArcHeight(14);
-        bottom.setTranslateX(WIDTH);
-        bottom.setTranslateY(y + gap);
-        bottom.setFill(new LinearGradient(0, 0, 0, 1, true, CycleMethod.NO_CYCLE,
-                new Stop(0, Color.web("#6BBF6B")), new Stop(1, Color.web("#2E8B57"))));
-        bottom.setEffect(new DropShadow(8, Color.gray(0, 0.35)));
-
-        pipes.add(new Rectangle[]{top, bottom});
-
-        int insertIndex = Math.max(2, root.getChildren().size() - 2);
-        root.getChildren().add(insertIndex, top);
-        root.getChildren().add(insertIndex + 1, bottom);
+        pipe.setEffect(new DropShadow(8, Color.gray(0, 0.35)));
+        return pipe;
     }
 
     private void jump() {
@@ -328,26 +339,11 @@ public class FlappyBirdGame extends Application {
 //            swingSound.stop();
 //            swingSound.play();
 //        }
-        velocity = -350.0;
-    }
-
-    private boolean circleIntersectsRect(double cx, double cy, double r, Rectangle rect) {
-        double rx = rect.getTranslateX();
-        double ry = rect.getTranslateY();
-        double rw = rect.getWidth();
-        double rh = rect.getHeight();
-
-        double closestX = clamp(cx, rx, rx + rw);
-        double closestY = clamp(cy, ry, ry + rh);
-
-        double dx = cx - closestX;
-        double dy = cy - closestY;
-
-        return dx * dx + dy * dy <= r * r;
-    }
-
-    private double clamp(double v, double min, double max) {
-        return Math.max(min, Math.min(max, v));
+        if (jumpCount == jumps.length) {
+            jumps = Arrays.copyOf(jumps, jumpCount * 2);
+        }
+        jumps[jumpCount++] = engine.tick();
+        engine.jump();
     }
 
 
@@ -361,6 +357,7 @@ public class FlappyBirdGame extends Application {
 //        }
 
         running = false;
+        int score = engine.score();
 
         Text go = new Text(WIDTH / 2 - 120, HEIGHT / 2 - 170, "Game Over\nPress Space to restart");
         go.setFont(Font.font("Arial", FontWeight.BOLD, 24));
@@ -371,87 +368,91 @@ public class FlappyBirdGame extends Application {
 
         if (score > highscore) {
             highscore = score;
+        }
 
-            if (!loggedInUsername.equals("guest")) {
-                try {
-                    logger.info("submitting new highscore");
-                    httpClientGame.submitScore(loggedInUsername, loggedInPassword, highscore);
-                    logger.info("submitted highscore with value " + highscore);
-                } catch (IOException e) {
-                    e.printStackTrace();
-                }
-            }
+        double startX = WIDTH / 2 - 120;
+        double startY = HEIGHT / 2 + 30;
+        addLeaderboardRow(startX, startY + 135, "-", "Youre Best", highscore);
+
+        // nothing here waits for the network: the overlay is complete now, the ranking rows follow
+        // when the server answers (on the HttpClient's threads, hence Platform.runLater)
+        CompletableFuture<Boolean> submitted = CompletableFuture.completedFuture(false);
+        // every score is sent, not only new high scores: it may still be the best of the day or week
+        if (score > 0 && !loggedInUsername.equals("guest")) {
+            logger.info("submitting score");
+            // a score the server does not get now stays queued and is retried in the background
+            submitted = scoreQueue.submit(loggedInUsername, score, seed, Arrays.copyOf(jumps, jumpCount));
         }
 
         // Leaderboard Display
         if (!loggedInUsername.equals("guest")) {
-            try {
-                Object raw = httpClientGame.getLeaderboard();
-                logger.info("leaderboard raw: " + raw);
-
-                if (raw instanceof java.util.List<?> list) {
-                    double startX = WIDTH / 2 - 120;
-                    double startY = HEIGHT / 2 + 30;
-
-                    Text header = new Text(startX, startY + 20, "RANKING");
-                    header.setFont(Font.font("Arial", FontWeight.BOLD, 22));
-                    header.setFill(Color.GOLD);
-                    header.setStroke(Color.BLACK);
-                    header.setStrokeWidth(1);
-                    header.setEffect(new DropShadow(4, Color.gray(0, 0.6)));
-                    root.getChildren().add(header);
-
-                    for (int i = 0; i < list.size(); i++) {
-                        Object item = list.get(i);
-                        String name = null;
-                        Integer userScore = null;
-
-                        if (item instanceof Map<?, ?> map) {
-                            Object n = map.get("username");
-                            if (n == null) n = map.get("name");
-                            if (n == null) n = map.get("user");
-                            if (n != null) name = String.valueOf(n).trim();
-
-                            Object s = map.get("highScore");
-                            if (s == null) s = map.get("score");
-                            if (s == null) s = map.get("points");
-
-                            if (s instanceof Number) {
-                                userScore = ((Number) s).intValue();
-                            } else if (s != null) {
-                                try {
-                                    userScore = Integer.parseInt(String.valueOf(s).trim().replaceAll("\\D", ""));
-                                } catch (Exception ignored) { }
-                            }
-                        }
-
-                        logger.info("Leaderboard entry: " + (i + 1) + ". " + name + " - " + userScore);
-
-                        double rowY = startY + 50 + (i * 25);
-                        addLeaderboardRow(startX, rowY, (i + 1) + ".", name, userScore);
+            addRankingHeader(startX, startY);
+            List<LeaderboardEntry> mirrored = leaderboardMirror == null ? null : leaderboardMirror.entries();
+            if (mirrored != null) {
+                addRankingRows(mirrored, startX, startY);
+            } else {
+                Text loading = new Text(startX + 5, startY + 50, "loading...");
+                loading.setFont(Font.font("Arial", FontWeight.BOLD, 18));
+                loading.setFill(Color.WHITE);
+                loading.setStroke(Color.BLACK);
+                root.getChildren().add(loading);
+
+                // asked for once the score is in (or failed), so the ranking can include it
+                CompletableFuture<List<LeaderboardEntry>> leaderboard = submitted
+                        .thenCompose(sent -> httpClientGame.getLeaderboardAsync());
+                pendingLeaderboard = leaderboard;
+                leaderboard.whenComplete((list, e) -> Platform.runLater(() -> {
+                    // restart() cancelled it: these nodes would land on the next game
+                    if (leaderboard.isCancelled()) return;
+                    if (e != null) {
+                        logger.warning("leaderboard failed: " + e);
+                        loading.setText("ranking unavailable");
+                        return;
                     }
-                }
-            } catch (Exception e) {
-                e.printStackTrace();
+                    root.getChildren().remove(loading);
+                    addRankingRows(list, startX, startY);
+                }));
             }
         }
+    }
+
+    private void addRankingHeader(double startX, double startY) {
+        Text header = new Text(startX, startY + 20, "RANKING");
+        header.setFont(Font.font("Arial", FontWeight.BOLD, 22));
+        header.setFill(Color.GOLD);
+        header.setStroke(Color.BLACK);
+        header.setStrokeWidth(1);
+        header.setEffect(new DropShadow(4, Color.gray(0, 0.6)));
+        root.getChildren().add(header);
+    }
 
-        double ownRowY = (HEIGHT / 2 + 30) + 135;
-        addLeaderboardRow(WIDTH / 2 - 120, ownRowY, "-", "Youre Best", highscore);
+    private void addRankingRows(List<LeaderboardEntry> list, double startX, double startY) {
+        for (int i = 0; i < list.size(); i++) {
+            // the mirror holds null for a rank it has no entry for yet
+            LeaderboardEntry entry = list.get(i);
+            double rowY = startY + 50 + (i * 25);
+            addLeaderboardRow(startX, rowY, (i + 1) + ".", entry == null ? null : entry.username(),
+                    entry == null ? null : entry.highScore());
+        }
     }
 
 
     private void restart() {
+        if (pendingLeaderboard != null) {
+            pendingLeaderboard.cancel(true);
+            pendingLeaderboard = null;
+        }
         root.getChildren().clear();
-        pipes.clear();
+
+        seed = ThreadLocalRandom.current().nextLong();
+        engine.reset(seed);
+        jumpCount = 0;
 
         player = createBird();
-        player.setTranslateX(100);
-        player.setTranslateY(HEIGHT / 2);
+        player.setTranslateX(FlappyEngine.PLAYER_X);
+        player.setTranslateY(engine.birdY());
 
-        velocity = 0;
-        score = 0;
-        scoreText.setText(String.valueOf(score));
+        scoreText.setText("0");
         scoreText.setTranslateX(WIDTH / 2 - scoreText.getLayoutBounds().getWidth() / 2);
 
         root.getChildren().addAll(
@@ -463,17 +464,15 @@ public class FlappyBirdGame extends Application {
                     setFill(new LinearGradient(0, 0, 0, 1, true, CycleMethod.NO_CYCLE,
                             new Stop(0, Color.web("#5DB85D")), new Stop(1, Color.web("#3A8A3A"))));
                     setStroke(Color.web("#2E7D2E"));
-                }},
-
-                player,
-                scoreText
+                }}
         );
+        addPipes();
+        root.getChildren().addAll(player, scoreText);
 
         running = true;
 
         prevTime = 0;
         accumulator = 0.0;
-        spawnTimer = SPAWN_INTERVAL;
     }
 
 
@@ -531,19 +530,41 @@ public class FlappyBirdGame extends Application {
 //        }
 //    }
 
-    private static void setupLogging() {
+    // everything logged goes to ~/.flappybird/logs/flappy.log, written by AsyncLogHandler's own thread;
+    // levels per logger (a class or package, or "stdout"/"stderr") come from -Dflappy.log.levels,
+    // e.g. org.example.gameclient=FINE,stdout=OFF
+    private static AsyncLogHandler setupLogging() {
+        Logger root = Logger.getLogger("");
+        AsyncLogHandler handler;
         try {
-            String timestamp = java.time.LocalDateTime.now()
-                    .format(java.time.format.DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
-            java.io.File logFile = new java.io.File(System.getProperty("user.home"),
-                    "flappy_log_" + timestamp + ".txt");
-            java.io.PrintStream logStream =
-                    new java.io.PrintStream(new java.io.FileOutputStream(logFile, true), true, "UTF-8");
-            System.setOut(logStream);
-            System.setErr(logStream);
-        } catch (Exception e) {
+            handler = new AsyncLogHandler(Path.of(System.getProperty("user.home"), ".flappybird", "logs", "flappy.log"),
+                    LOG_MAX_BYTES, LOG_FILES);
+        } catch (IOException e) {
+            // keep logging to the console
             e.printStackTrace();
+            return null;
         }
+        // the console handler writes to System.err, which is about to be logged itself
+        for (Handler h : root.getHandlers()) {
+            root.removeHandler(h);
+        }
+        root.addHandler(handler);
+
+        for (String entry : System.getProperty("flappy.log.levels", "").split(",")) {
+            int eq = entry.indexOf('=');
+            if (eq < 0) continue;
+            try {
+                Logger category = Logger.getLogger(entry.substring(0, eq).trim());
+                category.setLevel(Level.parse(entry.substring(eq + 1).trim()));
+                CONFIGURED_LOGGERS.add(category);
+            } catch (IllegalArgumentException e) {
+                root.warning("ignoring log level " + entry + ": " + e.getMessage());
+            }
+        }
+
+        System.setOut(AsyncLogHandler.lines(Logger.getLogger("stdout"), Level.INFO));
+        System.setErr(AsyncLogHandler.lines(Logger.getLogger("stderr"), Level.WARNING));
+        return handler;
     }
 
 
@@ -551,8 +572,10 @@ public class FlappyBirdGame extends Application {
      *  MAIN
      * ========================================================= */
     public static void main(String[] args) {
-        setupLogging();
+        AsyncLogHandler log = setupLogging();
         launch(args);
+        // what is still in the ring reaches the file before the JVM exits
+        if (log != null) log.close();
     }
 }
 
@@ -0,0 +1,74 @@
+package org.example.gamedirectory;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncLogHandlerTests {
+    @TempDir
+    Path dir;
+
+    @Test
+    void credentialsAndBearerTokensAreBlankedOut() {
+        assertEquals("login with password=*** failed", AsyncLogHandler.redact("login with password=hunter2 failed"));
+        assertEquals("user=ann&pwd=***&x=1", AsyncLogHandler.redact("user=ann&pwd=s3cret&x=1"));
+        assertEquals("{\"username\":\"ann\",\"token\":\"***\"}",
+                AsyncLogHandler.redact("{\"username\":\"ann\",\"token\":\"eyJhbGciOi.J9.x-y_z\"}"));
+        assertEquals("API_KEY: ***", AsyncLogHandler.redact("API_KEY: abc123"));
+        assertEquals("Authorization: Bearer ***", AsyncLogHandler.redact("Authorization: Bearer eyJhbGciOi.J9+/="));
+        assertEquals("submitted score 42 of ann", AsyncLogHandler.redact("submitted score 42 of ann"));
+        assertNull(AsyncLogHandler.redact(null));
+    }
+
+    @Test
+    void writtenRecordsAreRedactedStackTracesIncluded() throws IOException {
+        Path file = dir.resolve("flappy.log");
+        AsyncLogHandler handler = new AsyncLogHandler(file, 1_000_000, 3);
+        handler.publish(record(Level.INFO, "login of {0} with password=hunter2", "ann"));
+        LogRecord failure = record(Level.WARNING, "request failed");
+        failure.setThrown(new IOException("401 {\"token\":\"abc.def\"}"));
+        handler.publish(failure);
+        handler.close();
+
+        String log = Files.readString(file);
+        assertTrue(log.contains("INFO AsyncLogHandlerTests: login of ann with password=***"), log);
+        assertTrue(log.contains("java.io.IOException: 401 {\"token\":\"***\"}"), log);
+        assertTrue(log.contains("at org.example.gamedirectory.AsyncLogHandlerTests"), log);
+        assertFalse(log.contains("hunter2") || log.contains("abc.def"), log);
+    }
+
+    @Test
+    void filesAreRotatedBySizeKeepingMaxFiles() throws IOException {
+        Path file = dir.resolve("flappy.log");
+        AsyncLogHandler handler = new AsyncLogHandler(file, 500, 3);
+        // each line is about 70 bytes: a dozen files' worth, written one after the other
+        for (int i = 0; i < 80; i++) {
+            handler.publish(record(Level.INFO, String.format("line %03d of the rotation test", i)));
+        }
+        handler.close();
+
+        assertTrue(Files.exists(file));
+        assertTrue(Files.exists(dir.resolve("flappy.log.1")));
+        assertTrue(Files.exists(dir.resolve("flappy.log.2")));
+        assertFalse(Files.exists(dir.resolve("flappy.log.3")));
+        // the newest lines are in the current file, the ones before them in .1
+        assertTrue(Files.readString(file).contains("line 079"));
+        assertFalse(Files.readString(file).contains("line 000"));
+        assertTrue(Files.size(dir.resolve("flappy.log.1")) >= 500);
+        assertTrue(Files.size(dir.resolve("flappy.log.1")) < 500 + 100);
+    }
+
+    private static LogRecord record(Level level, String message, Object... params) {
+        LogRecord r = new LogRecord(level, message);
+        r.setLoggerName("org.example.gamedirectory.AsyncLogHandlerTests");
+        r.setParameters(params);
+        return r;
+    }
+}
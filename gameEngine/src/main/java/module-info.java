@@ -0,0 +1,3 @@
+module org.example.gameengine {
+    exports org.example.gameengine;
+}
@@ -0,0 +1,138 @@
+package org.example.gameengine;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/*
+A bot for headless players (load generator, tests, benchmarks). It flaps only when the bird could not
+survive the next HORIZON ticks otherwise, found by a depth-first search over copies of the engine. Once it reaches the target score it stops flapping, so the run
+ends with a real death and yields a replay the server accepts.
+
+The pipes do not depend on what the bird does, so whether a bird survives depends only on the tick, its
+height and its velocity. Positions found to be fatal are remembered (height rounded to 1/4 px), and the
+path found last is extended one tick at a time until it runs into a pipe, so a new search is only needed
+about once a second. A one-minute game is planned in about 12 ms.
+ */
+public final class Autopilot {
+    // 1.5 s: far enough to see the next gap before the bird has to start climbing or falling towards it
+    private static final int HORIZON = 90;
+    // flapping again while still rising faster than this changes little, so the search does not try it
+    private static final double FLAP_BELOW_VELOCITY = -100;
+    // fatal positions older than this many ticks are dropped
+    private static final int FORGET_TICKS = 600;
+
+    private Autopilot() {
+    }
+
+    /** A finished run: its seed, the ticks at which the bird jumped, and the score it reached. */
+    public record Run(long seed, int[] jumps, int score) {
+    }
+
+    public static Run play(long seed, int targetScore) {
+        FlappyEngine engine = new FlappyEngine(seed);
+        Search search = new Search();
+        int[] jumps = new int[64];
+        int count = 0;
+        do {
+            if (engine.tick() % FORGET_TICKS == 0) search.fatal.clear();
+            if (engine.score() < targetScore && search.shouldFlap(engine)) {
+                if (count == jumps.length) jumps = Arrays.copyOf(jumps, count * 2);
+                jumps[count++] = engine.tick();
+                engine.jump();
+            }
+            search.advance();
+        } while (engine.step() && engine.tick() < FlappyEngine.MAX_TICKS);
+        return new Run(seed, Arrays.copyOf(jumps, count), engine.score());
+    }
+
+    private static final class Search {
+        // depth-first search stack: [0] is the real game, [d] the bird d ticks later
+        private final FlappyEngine[] stack = new FlappyEngine[HORIZON + 1];
+        private final boolean[] stackFlap = new boolean[HORIZON + 1];
+        // the surviving path found last, as a ring from head: the next HORIZON ticks and whether each one flaps;
+        // while it stays HORIZON long, each tick costs one step to extend it instead of a new search
+        private final FlappyEngine[] plan = new FlappyEngine[HORIZON];
+        private final boolean[] planFlap = new boolean[HORIZON];
+        private int head;
+        private int planned;
+        private final Set<Long> fatal = new HashSet<>();
+
+        Search() {
+            for (int i = 0; i <= HORIZON; i++) {
+                stack[i] = new FlappyEngine();
+            }
+            for (int i = 0; i < HORIZON; i++) {
+                plan[i] = new FlappyEngine();
+            }
+        }
+
+        boolean shouldFlap(FlappyEngine engine) {
+            if (planned == HORIZON && plan[head].tick() == engine.tick() + 1) {
+                return planFlap[head];
+            }
+            stack[0].copyFrom(engine);
+            if (!survives(0)) {
+                planned = 0;
+                return false;
+            }
+            for (int d = 1; d <= HORIZON; d++) {
+                plan[d - 1].copyFrom(stack[d]);
+                planFlap[d - 1] = stackFlap[d];
+            }
+            head = 0;
+            planned = HORIZON;
+            return planFlap[0];
+        }
+
+        // the game has taken the first planned tick: drop it and try to plan one tick further
+        void advance() {
+            if (planned == 0) return;
+            FlappyEngine last = plan[(head + planned - 1) % HORIZON];
+            int slot = head;
+            head = (head + 1) % HORIZON;
+            planned--;
+            FlappyEngine next = plan[slot];
+            next.copyFrom(last);
+            if (next.step()) {
+                planFlap[slot] = false;
+                planned++;
+            } else if (last.velocity() >= FLAP_BELOW_VELOCITY) {
+                next.copyFrom(last);
+                next.jump();
+                if (next.step()) {
+                    planFlap[slot] = true;
+                    planned++;
+                }
+            }
+        }
+
+        // whether the bird in stack[depth] can live until depth HORIZON, trying "no flap" first
+        private boolean survives(int depth) {
+            if (depth == HORIZON) return true;
+            FlappyEngine current = stack[depth];
+            long key = key(current);
+            if (fatal.contains(key)) return false;
+
+            FlappyEngine next = stack[depth + 1];
+            next.copyFrom(current);
+            stackFlap[depth + 1] = false;
+            if (next.step() && survives(depth + 1)) return true;
+            if (current.velocity() >= FLAP_BELOW_VELOCITY) {
+                next.copyFrom(current);
+                next.jump();
+                stackFlap[depth + 1] = true;
+                if (next.step() && survives(depth + 1)) return true;
+            }
+            fatal.add(key);
+            return false;
+        }
+
+        // a bird that cannot make it to the horizon cannot make it to any later horizon either
+        private static long key(FlappyEngine e) {
+            long y = Math.round(e.birdY() * 4);
+            long v = Math.round(e.velocity());
+            return ((long) e.tick() << 40) | ((y & 0xFFFFF) << 20) | (v & 0xFFFFF);
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package org.example.gameengine;
+
+/*
+The game's rules without any rendering: the bird, the pipes, scoring and collisions, advanced in fixed
+60 Hz ticks. FlappyBirdGame draws from this state, and the apiService re-runs a game from its seed and
+jump ticks to check a submitted score (replay).
+
+A run is fully determined by its seed and the ticks at which the player jumped: pipe heights come from
+a SplitMix64 generator seeded with the seed, and Java's double arithmetic is strict IEEE 754 (JEP 306),
+so the client and the server compute bit-identical positions. step() allocates nothing and an engine can
+be reset and reused; one thread replays about 10,000 one-minute games per second (ReplayBenchmark).
+ */
+public final class FlappyEngine {
+    public static final double WIDTH = 400;
+    public static final double HEIGHT = 600;
+    public static final double GROUND_HEIGHT = 60;
+
+    public static final double PLAYER_X = 100;
+    public static final double PLAYER_RADIUS = 18.0;
+    public static final double HITBOX_SCALE = 0.95;
+
+    public static final double FIXED_DT = 1.0 / 60.0;
+    public static final double GRAVITY = 1000.0;
+    public static final double JUMP_VELOCITY = -350.0;
+    public static final double SCROLL_SPEED = 200.0;
+
+    public static final double SPAWN_INTERVAL = 1.2;
+    public static final double PIPE_WIDTH = 60;
+    public static final double PIPE_GAP = 120;
+    private static final double PIPE_MIN_Y = 80;
+    private static final double PIPE_MAX_Y = HEIGHT - 80 - PIPE_GAP - GROUND_HEIGHT;
+    // a pipe is dropped once its right edge is this far left of the screen
+    private static final double PIPE_DESPAWN_X = -50;
+
+    // a pipe lives (WIDTH + PIPE_WIDTH - PIPE_DESPAWN_X) / SCROLL_SPEED = 2.55 s and one spawns every 1.2 s
+    public static final int MAX_PIPES = 4;
+    // replays longer than one hour are rejected
+    public static final int MAX_TICKS = 60 * 60 * 60;
+    public static final int INVALID = -1;
+
+    private long rng;
+    private double birdY;
+    private double velocity;
+    private double spawnTimer;
+    private int score;
+    private int tick;
+    private boolean dead;
+
+    private final boolean[] pipeActive = new boolean[MAX_PIPES];
+    private final boolean[] pipeScored = new boolean[MAX_PIPES];
+    private final double[] pipeX = new double[MAX_PIPES];
+    private final double[] pipeGapY = new double[MAX_PIPES];
+
+    public FlappyEngine(long seed) {
+        reset(seed);
+    }
+
+    public FlappyEngine() {
+        this(0);
+    }
+
+    public void reset(long seed) {
+        rng = seed;
+        birdY = HEIGHT / 2;
+        velocity = 0;
+        spawnTimer = SPAWN_INTERVAL;
+        score = 0;
+        tick = 0;
+        dead = false;
+        for (int i = 0; i < MAX_PIPES; i++) {
+            pipeActive[i] = false;
+        }
+    }
+
+    /** Copies the whole state of {@code other}, for bots that try moves ahead of the real game. */
+    public void copyFrom(FlappyEngine other) {
+        rng = other.rng;
+        birdY = other.birdY;
+        velocity = other.velocity;
+        spawnTimer = other.spawnTimer;
+        score = other.score;
+        tick = other.tick;
+        dead = other.dead;
+        System.arraycopy(other.pipeActive, 0, pipeActive, 0, MAX_PIPES);
+        System.arraycopy(other.pipeScored, 0, pipeScored, 0, MAX_PIPES);
+        System.arraycopy(other.pipeX, 0, pipeX, 0, MAX_PIPES);
+        System.arraycopy(other.pipeGapY, 0, pipeGapY, 0, MAX_PIPES);
+    }
+
+    public void jump() {
+        velocity = JUMP_VELOCITY;
+    }
+
+    /**
+     * Advances one FIXED_DT tick. Returns false once the bird has hit a pipe, the ground or the ceiling;
+     * a dead engine stays where it is until reset.
+     */
+    public boolean step() {
+        if (dead) return false;
+
+        velocity += GRAVITY * FIXED_DT;
+        birdY += velocity * FIXED_DT;
+
+        spawnTimer -= FIXED_DT;
+        if (spawnTimer <= 0) {
+            spawnPipe();
+            spawnTimer += SPAWN_INTERVAL;
+        }
+
+        double r = PLAYER_RADIUS * HITBOX_SCALE;
+        double dx = SCROLL_SPEED * FIXED_DT;
+        boolean hit = false;
+        for (int i = 0; i < MAX_PIPES; i++) {
+            if (!pipeActive[i]) continue;
+            double x = pipeX[i] - dx;
+            pipeX[i] = x;
+
+            if (!pipeScored[i] && x + PIPE_WIDTH < PLAYER_X) {
+                pipeScored[i] = true;
+                score++;
+            }
+
+            // only a pipe within reach of the bird horizontally can touch it
+            if (x <= PLAYER_X + r && x + PIPE_WIDTH >= PLAYER_X - r) {
+                double gapY = pipeGapY[i];
+                double bottomY = gapY + PIPE_GAP;
+                if (circleIntersectsRect(PLAYER_X, birdY, r, x, 0, PIPE_WIDTH, gapY)
+                        || circleIntersectsRect(PLAYER_X, birdY, r, x, bottomY, PIPE_WIDTH, HEIGHT - bottomY - GROUND_HEIGHT)) {
+                    hit = true;
+                }
+            }
+
+            if (x + PIPE_WIDTH < PIPE_DESPAWN_X) {
+                pipeActive[i] = false;
+            }
+        }
+
+        if (birdY - PLAYER_RADIUS < 0 || birdY + PLAYER_RADIUS > HEIGHT - GROUND_HEIGHT) {
+            hit = true;
+        }
+
+        tick++;
+        dead = hit;
+        return !dead;
+    }
+
+    /**
+     * Plays a whole game from {@code seed}, jumping before the ticks listed in the first {@code count}
+     * entries of {@code jumps} (ascending, as recorded from tick()), and returns its score. Returns
+     * INVALID unless the bird dies after the last jump and within MAX_TICKS.
+     */
+    public int replay(long seed, int[] jumps, int count) {
+        if (count < 0 || count > jumps.length || count > MAX_TICKS) return INVALID;
+        reset(seed);
+        int next = 0;
+        while (true) {
+            while (next < count && jumps[next] == tick) {
+                jump();
+                next++;
+            }
+            if (next < count && jumps[next] < tick) return INVALID;
+            if (tick >= MAX_TICKS) return INVALID;
+            if (!step()) return next == count ? score : INVALID;
+        }
+    }
+
+    private void spawnPipe() {
+        for (int i = 0; i < MAX_PIPES; i++) {
+            if (!pipeActive[i]) {
+                pipeActive[i] = true;
+                pipeScored[i] = false;
+                pipeX[i] = WIDTH;
+                pipeGapY[i] = PIPE_MIN_Y + nextDouble() * Math.max(0, PIPE_MAX_Y - PIPE_MIN_Y);
+                return;
+            }
+        }
+        throw new IllegalStateException("more than " + MAX_PIPES + " pipes on screen");
+    }
+
+    private static boolean circleIntersectsRect(double cx, double cy, double r,
+                                                double rx, double ry, double rw, double rh) {
+        double closestX = clamp(cx, rx, rx + rw);
+        double closestY = clamp(cy, ry, ry + rh);
+
+        double dx = cx - closestX;
+        double dy = cy - closestY;
+
+        return dx * dx + dy * dy <= r * r;
+    }
+
+    private static double clamp(double v, double min, double max) {
+        return Math.max(min, Math.min(max, v));
+    }
+
+    // SplitMix64 on a plain long: unlike java.util.Random there is no AtomicLong to update per draw
+    private double nextDouble() {
+        long z = (rng += 0x9E3779B97F4A7C15L);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z ^= z >>> 31;
+        return (z >>> 11) * 0x1.0p-53;
+    }
+
+    /* ---- read-only state for rendering and bots ---- */
+
+    public double birdY() {
+        return birdY;
+    }
+
+    public double velocity() {
+        return velocity;
+    }
+
+    public int score() {
+        return score;
+    }
+
+    /** Ticks simulated since reset; a jump made now is recorded under this number. */
+    public int tick() {
+        return tick;
+    }
+
+    public boolean isDead() {
+        return dead;
+    }
+
+    public boolean pipeActive(int slot) {
+        return pipeActive[slot];
+    }
+
+    public double pipeX(int slot) {
+        return pipeX[slot];
+    }
+
+    /** Height of the top pipe, i.e. where the gap starts. */
+    public double pipeGapY(int slot) {
+        return pipeGapY[slot];
+    }
+}
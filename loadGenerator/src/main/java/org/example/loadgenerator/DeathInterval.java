@@ -0,0 +1,59 @@
+package org.example.loadgenerator;
+
+import java.time.Duration;
+import java.util.SplittableRandom;
+
+/*
+How long a simulated player survives before dying, i.e. the gap between two score submissions.
+Parsed from "fixed:5s", "uniform:2s-20s" or "exp:8s" (exponential with that mean).
+ */
+sealed interface DeathInterval {
+
+    long sampleMillis(SplittableRandom random);
+
+    record Fixed(long millis) implements DeathInterval {
+        public long sampleMillis(SplittableRandom random) {
+            return millis;
+        }
+    }
+
+    record Uniform(long minMillis, long maxMillis) implements DeathInterval {
+        public long sampleMillis(SplittableRandom random) {
+            return random.nextLong(minMillis, maxMillis + 1);
+        }
+    }
+
+    record Exponential(long meanMillis) implements DeathInterval {
+        public long sampleMillis(SplittableRandom random) {
+            return (long) (-meanMillis * Math.log(1 - random.nextDouble()));
+        }
+    }
+
+    static DeathInterval parse(String spec) {
+        int colon = spec.indexOf(':');
+        if (colon < 0) throw new IllegalArgumentException("death interval must look like exp:8s, got " + spec);
+        String kind = spec.substring(0, colon);
+        String value = spec.substring(colon + 1);
+        return switch (kind) {
+            case "fixed" -> new Fixed(parseDuration(value).toMillis());
+            case "exp" -> new Exponential(parseDuration(value).toMillis());
+            case "uniform" -> {
+                String[] bounds = value.split("-", 2);
+                if (bounds.length != 2) throw new IllegalArgumentException("uniform needs min-max, got " + value);
+                long min = parseDuration(bounds[0]).toMillis();
+                long max = parseDuration(bounds[1]).toMillis();
+                if (max < min) throw new IllegalArgumentException("uniform max is below min: " + value);
+                yield new Uniform(min, max);
+            }
+            default -> throw new IllegalArgumentException("unknown death interval kind " + kind);
+        };
+    }
+
+    /** "500ms", "8s", "2m". */
+    static Duration parseDuration(String s) {
+        if (s.endsWith("ms")) return Duration.ofMillis(Long.parseLong(s.substring(0, s.length() - 2)));
+        if (s.endsWith("s")) return Duration.ofSeconds(Long.parseLong(s.substring(0, s.length() - 1)));
+        if (s.endsWith("m")) return Duration.ofMinutes(Long.parseLong(s.substring(0, s.length() - 1)));
+        throw new IllegalArgumentException("duration needs a ms/s/m unit, got " + s);
+    }
+}
@@ -0,0 +1,70 @@
+package org.example.loadgenerator;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+Latency histogram (microseconds) and error count for one endpoint.
+Player threads record into a Recorder; only the reporter thread reads, by draining interval histograms.
+ */
+final class EndpointStats {
+    private static final long MAX_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    final String name;
+    private final Recorder recorder = new Recorder(MAX_MICROS, 3);
+    private final LongAdder errors = new LongAdder();
+
+    // reporter thread only
+    private final Histogram total = new Histogram(MAX_MICROS, 3);
+    private Histogram interval;
+    private long reportedErrors;
+
+    EndpointStats(String name) {
+        this.name = name;
+    }
+
+    void success(long startNanos) {
+        long micros = (System.nanoTime() - startNanos) / 1000;
+        recorder.recordValue(Math.min(micros, MAX_MICROS));
+    }
+
+    void error() {
+        errors.increment();
+    }
+
+    static void printHeader(PrintStream out) {
+        out.printf("%-12s %9s %9s %7s %8s %8s %8s %8s %8s%n",
+                "endpoint", "ok", "req/s", "err%", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+    }
+
+    /** Prints the requests since the previous call and folds them into the run total. */
+    void printInterval(PrintStream out, double seconds) {
+        interval = recorder.getIntervalHistogram(interval);
+        total.add(interval);
+        long errorsNow = errors.sum();
+        print(out, interval, errorsNow - reportedErrors, seconds);
+        reportedErrors = errorsNow;
+    }
+
+    /** Prints the whole run; call after a final printInterval. */
+    void printTotal(PrintStream out, double seconds) {
+        print(out, total, errors.sum(), seconds);
+    }
+
+    private void print(PrintStream out, Histogram h, long errorCount, double seconds) {
+        long ok = h.getTotalCount();
+        double errorRate = ok + errorCount == 0 ? 0 : 100.0 * errorCount / (ok + errorCount);
+        out.printf("%-12s %9d %9.1f %7.2f %8.1f %8.1f %8.1f %8.1f %8.1f%n",
+                name, ok, ok / seconds, errorRate,
+                millis(h.getValueAtPercentile(50)), millis(h.getValueAtPercentile(90)),
+                millis(h.getValueAtPercentile(99)), millis(h.getValueAtPercentile(99.9)), millis(h.getMaxValue()));
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
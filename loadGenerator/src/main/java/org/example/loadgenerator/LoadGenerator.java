@@ -0,0 +1,108 @@
+package org.example.loadgenerator;
+
+import org.example.gameclient.HttpClientGame;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/*
+Simulates N players against a running apiService, each on its own virtual thread, all sharing one HttpClient.
+Prints per-endpoint throughput, error rate and latency percentiles every interval and for the whole run.
+
+  java -jar loadGenerator-1.0-SNAPSHOT-shaded.jar --url=http://localhost:8080/api --players=5000 \
+       --duration=5m --ramp-up=1m --death=exp:8s
+ */
+public class LoadGenerator {
+
+    private static final Map<String, String> DEFAULTS = Map.of(
+            "url", "http://localhost:8080/api",
+            "players", "100",
+            "duration", "60s",
+            "ramp-up", "10s",
+            "death", "exp:8s",
+            "report-every", "10s",
+            "seed", "1");
+
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, String> opts = parse(args);
+        String url = opts.get("url");
+        int players = Integer.parseInt(opts.get("players"));
+        Duration duration = DeathInterval.parseDuration(opts.get("duration"));
+        Duration rampUp = DeathInterval.parseDuration(opts.get("ramp-up"));
+        Duration reportEvery = DeathInterval.parseDuration(opts.get("report-every"));
+        DeathInterval deathInterval = DeathInterval.parse(opts.get("death"));
+        // usernames must be unique per run and at most 20 alphanumeric characters
+        String prefix = opts.getOrDefault("prefix", "lg" + Long.toString(System.currentTimeMillis() / 1000 % 1_000_000, 36));
+        SplittableRandom seeds = new SplittableRandom(Long.parseLong(opts.get("seed")));
+
+        // HttpClientGame prints debug output on every login and leaderboard call; keep the report readable
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        out.printf("%d players against %s for %s (ramp-up %s, death interval %s, prefix %s)%n",
+                players, url, duration, rampUp, opts.get("death"), prefix);
+
+        Stats stats = new Stats();
+        long startNanos = System.nanoTime();
+        long deadlineNanos = startNanos + duration.toNanos();
+        ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor();
+        // separate from the player executor, which is shut down while requests are still in flight
+        HttpClient http = HttpClientGame.newClientBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+
+        for (int i = 0; i < players; i++) {
+            long startDelayNanos = rampUp.toNanos() * i / players;
+            Player player = new Player(new HttpClientGame(url, http), prefix + i, deathInterval,
+                    deadlineNanos, stats, seeds.split());
+            threads.execute(() -> {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(startDelayNanos);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                player.run();
+            });
+        }
+        threads.shutdown();
+
+        long lastReport = startNanos;
+        while (!threads.awaitTermination(reportEvery.toMillis(), TimeUnit.MILLISECONDS)) {
+            long now = System.nanoTime();
+            stats.printInterval(out, seconds(now - startNanos), seconds(now - lastReport));
+            lastReport = now;
+        }
+        long end = System.nanoTime();
+        stats.printInterval(out, seconds(end - startNanos), seconds(end - lastReport));
+        stats.printTotal(out, seconds(end - startNanos));
+    }
+
+    private static double seconds(long nanos) {
+        return nanos / 1e9;
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> opts = new HashMap<>(DEFAULTS);
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) {
+                throw new IllegalArgumentException("expected --name=value, got " + arg);
+            }
+            String name = arg.substring(2, eq);
+            if (!DEFAULTS.containsKey(name) && !name.equals("prefix")) {
+                throw new IllegalArgumentException("unknown option --" + name + ", known: " + DEFAULTS.keySet() + " and prefix");
+            }
+            opts.put(name, arg.substring(eq + 1));
+        }
+        return opts;
+    }
+}
@@ -0,0 +1,89 @@
+package org.example.loadgenerator;
+
+import org.example.gameclient.HttpClientGame;
+import org.example.gameclient.LeaderboardMirror;
+import org.example.gameengine.Autopilot;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+One simulated player, doing what FlappyBirdGame does: register, log in, fetch the own high score,
+then play until the deadline. After each death it submits the score (every non-zero score, since it
+may be the best of the day or week) and reads the leaderboard from its stream mirror, falling back to a
+request while the stream is not connected.
+Each score is sent with a replay the server accepts: an Autopilot game that stops at that score. Planning
+one costs about 0.2 ms per second of play, so every score is planned once and shared by all players.
+ */
+final class Player implements Runnable {
+    // a pipe is passed every FlappyBirdGame.SPAWN_INTERVAL (1.2 s)
+    private static final long MILLIS_PER_POINT = 1200;
+    private static final Map<Integer, Autopilot.Run> RUNS = new ConcurrentHashMap<>();
+
+    interface Call {
+        void run() throws Exception;
+    }
+
+    private final HttpClientGame api;
+    private final String username;
+    private final String password;
+    private final DeathInterval deathInterval;
+    private final long deadlineNanos;
+    private final Stats stats;
+    private final SplittableRandom random;
+
+    Player(HttpClientGame api, String username, DeathInterval deathInterval, long deadlineNanos,
+           Stats stats, SplittableRandom random) {
+        this.api = api;
+        this.username = username;
+        this.password = "pw-" + username;
+        this.deathInterval = deathInterval;
+        this.deadlineNanos = deadlineNanos;
+        this.stats = stats;
+        this.random = random;
+    }
+
+    @Override
+    public void run() {
+        if (!call(stats.register, () -> api.register(username, password))) return;
+        if (!call(stats.login, () -> api.login(username, password))) return;
+        call(stats.rank, () -> api.getUserHighScore(username));
+
+        stats.playersActive.incrementAndGet();
+        LeaderboardMirror mirror = api.subscribeLeaderboard(3);
+        try {
+            while (true) {
+                long aliveMillis = deathInterval.sampleMillis(random);
+                if (System.nanoTime() + aliveMillis * 1_000_000 > deadlineNanos) return;
+                Thread.sleep(aliveMillis);
+
+                int target = (int) (aliveMillis / MILLIS_PER_POINT);
+                if (target > 0) {
+                    Autopilot.Run run = RUNS.computeIfAbsent(target, score -> Autopilot.play(score, score));
+                    call(stats.score, () -> api.submitScore(username, run.score(), run.seed(), run.jumps()));
+                }
+                if (mirror.entries() == null) {
+                    call(stats.leaderboard, api::getLeaderboard);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            mirror.close();
+            stats.playersActive.decrementAndGet();
+        }
+    }
+
+    private static boolean call(EndpointStats endpoint, Call call) {
+        long start = System.nanoTime();
+        try {
+            call.run();
+            endpoint.success(start);
+            return true;
+        } catch (Exception e) {
+            endpoint.error();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package org.example.loadgenerator;
+
+import java.io.PrintStream;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+Per-endpoint statistics of one run.
+ */
+final class Stats {
+    final EndpointStats register = new EndpointStats("register");
+    final EndpointStats login = new EndpointStats("login");
+    final EndpointStats rank = new EndpointStats("rank");
+    final EndpointStats score = new EndpointStats("score");
+    final EndpointStats leaderboard = new EndpointStats("leaderboard");
+    final AtomicInteger playersActive = new AtomicInteger();
+
+    private final List<EndpointStats> all = List.of(register, login, rank, score, leaderboard);
+
+    void printInterval(PrintStream out, double elapsedSeconds, double intervalSeconds) {
+        out.printf("%n--- %.0f s, %d players in game ---%n", elapsedSeconds, playersActive.get());
+        EndpointStats.printHeader(out);
+        for (EndpointStats e : all) e.printInterval(out, intervalSeconds);
+    }
+
+    void printTotal(PrintStream out, double elapsedSeconds) {
+        out.printf("%n=== total over %.0f s ===%n", elapsedSeconds);
+        EndpointStats.printHeader(out);
+        for (EndpointStats e : all) e.printTotal(out, elapsedSeconds);
+    }
+}